@@ -75,7 +75,7 @@ public class Employee {
 		if (this == obj)
 			return true;
 
-		if (getClass() != obj.getClass())
+		if (obj == null || getClass() != obj.getClass())
 			return false;
 
 		Employee other = (Employee) obj;
@@ -85,6 +85,6 @@ public class Employee {
 	
 	@Override
 	public int hashCode() {
-		return getName().length();
+		return getName().hashCode();
 	}
 }
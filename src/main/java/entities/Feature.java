@@ -58,6 +58,14 @@ public class Feature {
 		return requiredSkills;
 	}
 
+    public void setPreviousFeatures(List<Feature> previousFeatures) {
+        this.previousFeatures = previousFeatures;
+    }
+
+    public void setRequiredSkills(List<Skill> requiredSkills) {
+        this.requiredSkills = requiredSkills;
+    }
+
     /**
      *
      * @param f a feature
@@ -126,7 +134,7 @@ public class Feature {
 		if (this == obj)
 			return true;
 
-		if (getClass() != obj.getClass())
+		if (obj == null || getClass() != obj.getClass())
 			return false;
 
 		Feature other = (Feature) obj;
@@ -136,6 +144,7 @@ public class Feature {
 	
 	@Override
 	public int hashCode() {
-		return getName().length();
+		// Consistent with equals, and computed once as String caches its hash
+		return getName().hashCode();
 	}
 }
@@ -5,17 +5,45 @@ import java.util.*;
 /**
  * Represents the schedule of an employee during a certain number of weeks
  * and takes care of assigning features to said employee.
+ * <p>
+ * The weeks are stored in primitive arrays indexed by week, and every planned feature keeps the range of weeks it
+ * spans. {@link WeekSchedule} objects are only built when asked for, as copies: modifying them does not change the
+ * schedule.
  */
 public class Schedule implements Iterable<WeekSchedule> {
-    private List<WeekSchedule> weeks;
     private Employee employee;
-    private Set<PlannedFeature> plannedFeatures;
+    private List<PlannedFeature> plannedFeatures;   // In the order they were scheduled
+
+    // The weeks, only the first nbUsedWeeks positions are meaningful
+    private int nbUsedWeeks;
+    private double[] beginHours;
+    private double[] endHours;
+    private double[] remainingHours;
+
+    // The first week with remaining hours, or nbUsedWeeks if there isn't any
+    private int currentWeek;
+
+    // The first and last week of every planned feature, by position in plannedFeatures
+    private int[] firstWeeks;
+    private int[] lastWeeks;
 
     // The number of hours left this employee has for the whole release
     private double totalHoursLeft;
     private final int nbWeeks;
     private final double hoursPerWeek;
 
+    /*
+        The state of the schedule right before each planned feature was scheduled, used to roll back.
+        Only the last week and the ones after it can change when a feature is scheduled, so the state is the number
+        of weeks, the fields of the last week, the current week and the hours left.
+     */
+    private int[] checkpointWeeks = new int[0];
+    private int[] checkpointCurrentWeek = new int[0];
+    private double[] checkpointBeginHour = new double[0];
+    private double[] checkpointEndHour = new double[0];
+    private double[] checkpointRemainingHours = new double[0];
+    private double[] checkpointTotalHoursLeft = new double[0];
+
     public Schedule(Employee employee, int nbWeeks, double hoursPerWeek) {
         this.employee = employee;
         this.nbWeeks = nbWeeks;
@@ -23,23 +51,49 @@ public class Schedule implements Iterable<WeekSchedule> {
 
         totalHoursLeft = nbWeeks * employee.getWeekAvailability();
 
-        weeks = new ArrayList<>();
-        plannedFeatures = new HashSet<>();
+        // One more week than the iteration, as a week is opened when the last one gets full
+        int capacity = Math.max(1, nbWeeks + 1);
+        beginHours = new double[capacity];
+        endHours = new double[capacity];
+        remainingHours = new double[capacity];
+
+        plannedFeatures = new ArrayList<>();
+        firstWeeks = new int[8];
+        lastWeeks = new int[8];
     }
 
     // Copy constructor
     public Schedule(Schedule origin) {
         this(origin.employee, origin.nbWeeks, origin.hoursPerWeek);
 
+        copyWeeks(origin, origin.nbUsedWeeks);
+        currentWeek = origin.currentWeek;
         totalHoursLeft = origin.totalHoursLeft;
 
-        weeks = new ArrayList<>();
-        for (WeekSchedule week : weeks)
-            weeks.add(new WeekSchedule(week));
-
-        plannedFeatures = new HashSet<>();
         for (PlannedFeature pf : origin.plannedFeatures)
             plannedFeatures.add(new PlannedFeature(pf));
+        copyJobs(origin, plannedFeatures.size());
+    }
+
+    /**
+     * Copies the state of origin right before its nbJobs-th planned feature was scheduled.
+     * @param counterparts the PlannedFeature replacing each of the first nbJobs planned features of origin
+     */
+    public Schedule(Schedule origin, int nbJobs, Map<PlannedFeature, PlannedFeature> counterparts) {
+        this(origin.employee, origin.nbWeeks, origin.hoursPerWeek);
+
+        if (nbJobs < origin.plannedFeatures.size()) {
+            copyWeeks(origin, origin.checkpointWeeks[nbJobs]);
+            restore(origin, nbJobs);
+        } else {
+            copyWeeks(origin, origin.nbUsedWeeks);
+            currentWeek = origin.currentWeek;
+            totalHoursLeft = origin.totalHoursLeft;
+        }
+
+        for (int j = 0; j < nbJobs; ++j)
+            plannedFeatures.add(counterparts.get(origin.plannedFeatures.get(j)));
+        copyJobs(origin, nbJobs);
     }
 
     /* --- PUBLIC --- */
@@ -61,53 +115,32 @@ public class Schedule implements Iterable<WeekSchedule> {
         if (totalHoursLeft < featureHoursLeft)
             return false;
 
-        WeekSchedule week = getCurrentWeek();
-
-        double remainingWeekHours = week.getRemainingHours();
+        checkpoint();
 
-        WeekSchedule previousWeek = getPreviousWeek(week);
+        int week = getCurrentWeek();
 
+        double remainingWeekHours = remainingHours[week];
 
-        PlannedFeature lastPlanned = getLastPlannedFeature(week, previousWeek);
+        PlannedFeature lastPlanned = getLastPlannedFeature(week);
 
 
         if (featureHoursLeft <= remainingWeekHours) {
-            double newBeginHour = lastPlanned == null ? week.getEndHour() : lastPlanned.getEndHour();
+            double newBeginHour = lastPlanned == null ? endHours[week] : lastPlanned.getEndHour();
             pf.setBeginHour(newBeginHour);
 
-            week.addPlannedFeature(pf);
-            week.setRemainingHours(remainingWeekHours - featureHoursLeft);
+            remainingHours[week] = remainingWeekHours - featureHoursLeft;
 
             pf.setEndHour(pf.getBeginHour() + featureHoursLeft);
 
-            week.setEndHour(pf.getEndHour());
+            endHours[week] = pf.getEndHour();
 
-            plannedFeatures.add(pf);
+            addPlannedFeature(pf, week, week);
 
             totalHoursLeft -= featureHoursLeft;
         } else {
-            double pfBeginHour = lastPlanned == null ? week.getEndHour() : lastPlanned.getEndHour();
-            double pfEndHour = pfBeginHour;
-            while (featureHoursLeft > 0.0) {
-                week.addPlannedFeature(pf);
-
-                plannedFeatures.add(pf);
-
-                double doneHours = Math.min(featureHoursLeft, remainingWeekHours);
-
-                featureHoursLeft -= doneHours;
-                totalHoursLeft -= doneHours;
-
-                pfEndHour += featureHoursLeft > 0.0 ? normalizeHours(doneHours) : doneHours;
-
-                week.setRemainingHours(remainingWeekHours - doneHours);
-                week.setEndHour(pfEndHour);
-
-                week = getCurrentWeek();
-                remainingWeekHours = week.getRemainingHours();
-            }
+            double pfBeginHour = lastPlanned == null ? endHours[week] : lastPlanned.getEndHour();
             pf.setBeginHour(pfBeginHour);
-            pf.setEndHour(pfEndHour);
+            pf.setEndHour(spreadHours(pf, week, pfBeginHour));
         }
 
         return true;
@@ -120,62 +153,60 @@ public class Schedule implements Iterable<WeekSchedule> {
      * For regular, proper scheduling use {@link Schedule#scheduleFeature(PlannedFeature)}
      */
     public void forceSchedule(PlannedFeature pf) {
-        WeekSchedule week = getCurrentWeek();
+        checkpoint();
+
+        int week = getCurrentWeek();
 
-        PlannedFeature lastPlanned = getLastPlannedFeature(week, getPreviousWeek(week));
+        PlannedFeature lastPlanned = getLastPlannedFeature(week);
         if (lastPlanned != null) {
             pf.setBeginHour(Math.max(pf.getBeginHour(), lastPlanned.getEndHour()));
             pf.setEndHour(pf.getBeginHour() + pf.getFeature().getDuration());
         }
 
-        int i = weeks.indexOf(week);
+        int i = week;
         while (pf.getBeginHour() > (i+1)*hoursPerWeek) {
 
-            totalHoursLeft -= (hoursPerWeek - week.getEndHour());
+            totalHoursLeft -= (hoursPerWeek - endHours[week]);
 
-            week.setBeginHour(i*hoursPerWeek);
-            week.setEndHour((i+1)*hoursPerWeek);
+            beginHours[week] = i*hoursPerWeek;
+            endHours[week] = (i+1)*hoursPerWeek;
 
             ++i;
 
-            if (i < weeks.size())
-                week = weeks.get(i);
+            if (i < nbUsedWeeks)
+                week = i;
             else break;
         }
 
-        double featureHoursLeft = pf.getFeature().getDuration();
-        double remainingWeekHours = week.getRemainingHours();
-        double pfEndHour = pf.getBeginHour();
-        while (featureHoursLeft > 0.0) {
-            week.addPlannedFeature(pf);
-
-            plannedFeatures.add(pf);
+        spreadHours(pf, week, pf.getBeginHour());
+    }
 
-            double doneHours = Math.min(featureHoursLeft, remainingWeekHours);
 
-            featureHoursLeft -= doneHours;
-            totalHoursLeft -= doneHours;
+    /**
+     * @return a copy of the i-th week
+     */
+    public WeekSchedule getWeek(int i) {
+        if (i < 0 || i >= nbUsedWeeks)
+            throw new IndexOutOfBoundsException("Week: " + i + ", Size: " + nbUsedWeeks);
 
-            pfEndHour += featureHoursLeft > 0.0 ? normalizeHours(doneHours) : doneHours;
+        WeekSchedule week = newWeek(i);
 
-            week.setRemainingHours(remainingWeekHours - doneHours);
-            week.setEndHour(pfEndHour);
+        // The planned features spanning a week are consecutive
+        int j = firstJobEndingFrom(i);
+        for (; j < plannedFeatures.size() && firstWeeks[j] <= i; ++j)
+            week.addPlannedFeature(plannedFeatures.get(j));
 
-            week = getCurrentWeek();
-            remainingWeekHours = week.getRemainingHours();
-        }
+        return week;
     }
 
-
-    public WeekSchedule getWeek(int i) { return weeks.get(i); }
-
-    public int size() { return weeks.size(); }
+    public int size() { return nbUsedWeeks; }
 
     public boolean isEmpty() { return plannedFeatures.isEmpty(); }
 
     public List<WeekSchedule> getAllWeeks() {
-        weeks.removeIf(week -> week.getPlannedFeatures().isEmpty());
-        return weeks;
+        List<WeekSchedule> allWeeks = buildWeeks();
+        allWeeks.removeIf(week -> week.getPlannedFeatures().isEmpty());
+        return allWeeks;
     }
 
     public boolean contains(PlannedFeature pf) { return plannedFeatures.contains(pf); }
@@ -188,65 +219,246 @@ public class Schedule implements Iterable<WeekSchedule> {
 
     public double getTotalHoursLeft() { return totalHoursLeft; }
 
+    /**
+     * @return the durations of the planned features, each counted once for every week it spans, as when summing the
+     * durations of the planned features of every week, without building the weeks
+     */
+    public double getSummedWeekHours() {
+        double hours = 0.0;
+        for (int j = 0; j < plannedFeatures.size(); ++j)
+            hours += plannedFeatures.get(j).getFeature().getDuration() * (lastWeeks[j] - firstWeeks[j] + 1);
+        return hours;
+    }
+
+    // The number of planned features, which is the number of states this schedule can be rolled back to
+    public int getNbJobs() { return plannedFeatures.size(); }
+
+    /**
+     * Restores the state of the schedule right before its nbJobs-th planned feature was scheduled, unscheduling that
+     * one and all the following ones.
+     */
+    public void rollback(int nbJobs) {
+        if (nbJobs >= plannedFeatures.size())
+            return;
+
+        nbUsedWeeks = checkpointWeeks[nbJobs];
+        restore(this, nbJobs);
+        plannedFeatures.subList(nbJobs, plannedFeatures.size()).clear();
+    }
+
     public void clear() {
-        weeks.clear();
+        nbUsedWeeks = 0;
+        currentWeek = 0;
         plannedFeatures.clear();
         totalHoursLeft = nbWeeks * employee.getWeekAvailability();
     }
 
     @Override
-    public Iterator<WeekSchedule> iterator() { return weeks.iterator(); }
-
+    public Iterator<WeekSchedule> iterator() { return buildWeeks().iterator(); }
 
 
     /* --- PRIVATE --- */
-    private double normalizeHours(double doneHours) {
-        return doneHours * (hoursPerWeek/employee.getWeekAvailability());
+
+    // Saves the current state as the one to go back to when rolling back the next planned feature
+    private void checkpoint() {
+        int i = plannedFeatures.size();
+        if (i == checkpointWeeks.length) {
+            int capacity = Math.max(8, 2 * i);
+            checkpointWeeks = Arrays.copyOf(checkpointWeeks, capacity);
+            checkpointCurrentWeek = Arrays.copyOf(checkpointCurrentWeek, capacity);
+            checkpointBeginHour = Arrays.copyOf(checkpointBeginHour, capacity);
+            checkpointEndHour = Arrays.copyOf(checkpointEndHour, capacity);
+            checkpointRemainingHours = Arrays.copyOf(checkpointRemainingHours, capacity);
+            checkpointTotalHoursLeft = Arrays.copyOf(checkpointTotalHoursLeft, capacity);
+        }
+
+        checkpointWeeks[i] = nbUsedWeeks;
+        checkpointCurrentWeek[i] = currentWeek;
+        checkpointTotalHoursLeft[i] = totalHoursLeft;
+        if (nbUsedWeeks > 0) {
+            int last = nbUsedWeeks - 1;
+            checkpointBeginHour[i] = beginHours[last];
+            checkpointEndHour[i] = endHours[last];
+            checkpointRemainingHours[i] = remainingHours[last];
+        }
     }
 
-    // Returns the first non-full week of the employee, or a new one if there isn't any.
-    private WeekSchedule getCurrentWeek() {
-        for (WeekSchedule week : this.weeks)
-            if (week.getRemainingHours() > 0.0)
-                return week;
+    // Restores the checkpoint of origin taken before its nbJobs-th planned feature, except for the number of weeks
+    private void restore(Schedule origin, int nbJobs) {
+        int last = origin.checkpointWeeks[nbJobs] - 1;
+        if (last >= 0) {
+            beginHours[last] = origin.checkpointBeginHour[nbJobs];
+            endHours[last] = origin.checkpointEndHour[nbJobs];
+            remainingHours[last] = origin.checkpointRemainingHours[nbJobs];
+        }
+        currentWeek = origin.checkpointCurrentWeek[nbJobs];
+        totalHoursLeft = origin.checkpointTotalHoursLeft[nbJobs];
+    }
 
-        WeekSchedule week = new WeekSchedule(0.0, employee.getWeekAvailability());
+    private void copyWeeks(Schedule origin, int nbCopiedWeeks) {
+        ensureWeekCapacity(nbCopiedWeeks);
+        System.arraycopy(origin.beginHours, 0, beginHours, 0, nbCopiedWeeks);
+        System.arraycopy(origin.endHours, 0, endHours, 0, nbCopiedWeeks);
+        System.arraycopy(origin.remainingHours, 0, remainingHours, 0, nbCopiedWeeks);
+        nbUsedWeeks = nbCopiedWeeks;
+    }
 
-        weeks.add(week);
+    private void copyJobs(Schedule origin, int nbJobs) {
+        int capacity = Math.max(8, nbJobs);
+        firstWeeks = Arrays.copyOf(origin.firstWeeks, capacity);
+        lastWeeks = Arrays.copyOf(origin.lastWeeks, capacity);
+        checkpointWeeks = Arrays.copyOf(origin.checkpointWeeks, capacity);
+        checkpointCurrentWeek = Arrays.copyOf(origin.checkpointCurrentWeek, capacity);
+        checkpointBeginHour = Arrays.copyOf(origin.checkpointBeginHour, capacity);
+        checkpointEndHour = Arrays.copyOf(origin.checkpointEndHour, capacity);
+        checkpointRemainingHours = Arrays.copyOf(origin.checkpointRemainingHours, capacity);
+        checkpointTotalHoursLeft = Arrays.copyOf(origin.checkpointTotalHoursLeft, capacity);
+    }
 
-        WeekSchedule previous = getPreviousWeek(week);
+    private void addPlannedFeature(PlannedFeature pf, int firstWeek, int lastWeek) {
+        int j = plannedFeatures.size();
+        if (j == firstWeeks.length) {
+            firstWeeks = Arrays.copyOf(firstWeeks, 2 * j);
+            lastWeeks = Arrays.copyOf(lastWeeks, 2 * j);
+        }
+        firstWeeks[j] = firstWeek;
+        lastWeeks[j] = lastWeek;
+        plannedFeatures.add(pf);
+    }
 
-        if (previous != null) {
-            week.setBeginHour(previous.getEndHour());
-            week.setEndHour(week.getBeginHour());
+    private void ensureWeekCapacity(int capacity) {
+        if (capacity > beginHours.length) {
+            int newCapacity = Math.max(capacity, 2 * beginHours.length);
+            beginHours = Arrays.copyOf(beginHours, newCapacity);
+            endHours = Arrays.copyOf(endHours, newCapacity);
+            remainingHours = Arrays.copyOf(remainingHours, newCapacity);
         }
+    }
 
-        return week;
+    /**
+     * Does the hours of the planned feature from the given week on, which must be the current one, filling the weeks
+     * one after the other, and opens a new week if the last one gets full. Hours done in a week where the feature
+     * does not end take the whole week in the calendar, so the end hour and the spanned weeks are computed directly
+     * from the number of full weeks instead of week by week.
+     * @return the end hour of the planned feature
+     */
+    private double spreadHours(PlannedFeature pf, int week, double beginHour) {
+        double featureHours = pf.getFeature().getDuration();
+        double remainingWeekHours = remainingHours[week];
+        double endHour;
+        int lastWeek = week;
+
+        if (featureHours <= remainingWeekHours) {
+            endHour = beginHour + featureHours;
+            remainingHours[week] = remainingWeekHours - featureHours;
+            endHours[week] = endHour;
+        } else {
+            double availability = employee.getWeekAvailability();
+            double fullWeekHours = normalizeHours(availability);
+
+            // The hours after the first week fill nbFullWeeks weeks and end with lastWeekHours in (0, availability]
+            double hoursLeft = featureHours - remainingWeekHours;
+            int nbFullWeeks = (int) Math.ceil(hoursLeft / availability) - 1;
+            double lastWeekHours = hoursLeft - nbFullWeeks * availability;
+            if (lastWeekHours > availability) {
+                ++nbFullWeeks;
+                lastWeekHours -= availability;
+            } else if (lastWeekHours <= 0.0 && nbFullWeeks > 0) {
+                --nbFullWeeks;
+                lastWeekHours += availability;
+            }
+
+            lastWeek = week + nbFullWeeks + 1;
+            ensureWeekCapacity(lastWeek + 1);
+
+            double firstWeekEndHour = beginHour + normalizeHours(remainingWeekHours);
+            remainingHours[week] = 0.0;
+            endHours[week] = firstWeekEndHour;
+
+            for (int i = week + 1; i < lastWeek; ++i) {
+                beginHours[i] = endHours[i - 1];
+                endHours[i] = firstWeekEndHour + (i - week) * fullWeekHours;
+                remainingHours[i] = 0.0;
+            }
+
+            endHour = endHours[lastWeek - 1] + lastWeekHours;
+            beginHours[lastWeek] = endHours[lastWeek - 1];
+            endHours[lastWeek] = endHour;
+            remainingHours[lastWeek] = availability - lastWeekHours;
+
+            nbUsedWeeks = lastWeek + 1;
+            currentWeek = lastWeek;
+        }
+
+        totalHoursLeft -= featureHours;
+        addPlannedFeature(pf, week, lastWeek);
+        getCurrentWeek();
+
+        return endHour;
+    }
+
+    private double normalizeHours(double doneHours) {
+        return doneHours * (hoursPerWeek/employee.getWeekAvailability());
     }
 
-    // Returns the previous week to the given one, null if the given one is the first
-    private WeekSchedule getPreviousWeek(WeekSchedule week) {
-        int index = weeks.indexOf(week) - 1;
+    // Returns the first non-full week of the employee, opening a new one if there isn't any.
+    private int getCurrentWeek() {
+        while (currentWeek < nbUsedWeeks && remainingHours[currentWeek] <= 0.0)
+            ++currentWeek;
 
-        return index < 0 ? null : weeks.get(index);
+        if (currentWeek == nbUsedWeeks) {
+            ensureWeekCapacity(nbUsedWeeks + 1);
+
+            double beginHour = nbUsedWeeks == 0 ? 0.0 : endHours[nbUsedWeeks - 1];
+            beginHours[nbUsedWeeks] = beginHour;
+            endHours[nbUsedWeeks] = beginHour;
+            remainingHours[nbUsedWeeks] = employee.getWeekAvailability();
+            ++nbUsedWeeks;
+        }
+
+        return currentWeek;
     }
 
-    public PlannedFeature getLastPlannedFeature(WeekSchedule week, WeekSchedule previousWeek) {
-        List<PlannedFeature> jobs = week.getPlannedFeatures();
-        if (!jobs.isEmpty())
-            return jobs.get(jobs.size() - 1);
+    // The last planned feature of the given week or, if it has none, of the week before
+    private PlannedFeature getLastPlannedFeature(int week) {
+        if (plannedFeatures.isEmpty())
+            return null;
 
-        if (previousWeek == null) return null;
+        // Features are scheduled one after the other, so the last one is the last of the latest week it spans
+        int last = plannedFeatures.size() - 1;
+        return lastWeeks[last] >= week - 1 ? plannedFeatures.get(last) : null;
+    }
 
-        jobs = previousWeek.getPlannedFeatures();
-        if (!jobs.isEmpty())
-            return jobs.get(jobs.size() - 1);
+    // The position of the first planned feature whose last week is at least the given one
+    private int firstJobEndingFrom(int week) {
+        int low = 0;
+        int high = plannedFeatures.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lastWeeks[mid] < week) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
 
-        return null;
+    private WeekSchedule newWeek(int i) {
+        WeekSchedule week = new WeekSchedule(beginHours[i], remainingHours[i]);
+        week.setEndHour(endHours[i]);
+        return week;
     }
 
+    // Copies of all the weeks, built in a single pass over the planned features
+    private List<WeekSchedule> buildWeeks() {
+        List<WeekSchedule> weeks = new ArrayList<>(nbUsedWeeks);
+        for (int i = 0; i < nbUsedWeeks; ++i)
+            weeks.add(newWeek(i));
 
+        for (int j = 0; j < plannedFeatures.size(); ++j)
+            for (int i = firstWeeks[j]; i <= lastWeeks[j]; ++i)
+                weeks.get(i).addPlannedFeature(plannedFeatures.get(j));
 
+        return weeks;
+    }
 
     @Override
     public String toString() {
@@ -267,18 +479,30 @@ public class Schedule implements Iterable<WeekSchedule> {
 
         if (Double.compare(schedule.totalHoursLeft, totalHoursLeft) != 0) return false;
         if (nbWeeks != schedule.nbWeeks) return false;
-        if (weeks != null ? !weeks.equals(schedule.weeks) : schedule.weeks != null) return false;
+        if (nbUsedWeeks != schedule.nbUsedWeeks) return false;
+        for (int i = 0; i < nbUsedWeeks; ++i)
+            if (Double.compare(beginHours[i], schedule.beginHours[i]) != 0 ||
+                    Double.compare(endHours[i], schedule.endHours[i]) != 0 ||
+                    Double.compare(remainingHours[i], schedule.remainingHours[i]) != 0)
+                return false;
+        for (int j = 0; j < plannedFeatures.size(); ++j)
+            if (firstWeeks[j] != schedule.firstWeeks[j] || lastWeeks[j] != schedule.lastWeeks[j])
+                return false;
         if (!employee.equals(schedule.employee)) return false;
-        return plannedFeatures != null ? plannedFeatures.equals(schedule.plannedFeatures) : schedule.plannedFeatures == null;
+        return plannedFeatures.equals(schedule.plannedFeatures);
     }
 
     @Override
     public int hashCode() {
         int result;
         long temp;
-        result = weeks != null ? weeks.hashCode() : 0;
+        result = nbUsedWeeks;
+        for (int i = 0; i < nbUsedWeeks; ++i) {
+            temp = Double.doubleToLongBits(endHours[i]);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+        }
         result = 31 * result + employee.hashCode();
-        result = 31 * result + (plannedFeatures != null ? plannedFeatures.hashCode() : 0);
+        result = 31 * result + plannedFeatures.hashCode();
         temp = Double.doubleToLongBits(totalHoursLeft);
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         result = 31 * result + nbWeeks;
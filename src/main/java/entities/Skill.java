@@ -52,7 +52,7 @@ public class Skill {
 		if (this == obj)
 			return true;
 
-		if (getClass() != obj.getClass())
+		if (obj == null || getClass() != obj.getClass())
 			return false;
 
 		Skill other = (Skill) obj;
@@ -62,7 +62,7 @@ public class Skill {
 	
 	@Override
 	public int hashCode() {
-		return getName().length();
+		return getName().hashCode();
 	}
 	
 	@Override
@@ -20,6 +20,16 @@ public class AlgorithmParameters {
 
 	public int populationSize;
 
+	// Threads evaluating the populations, 0 when the server default applies and 1 for a sequential evaluation
+	public int numberOfThreads;
+
+	// Seed of the random numbers of a solve, null for a different one every time.
+	// PESA2 runs are not reproducible, its selection uses the random numbers shared by all the solves
+	public Long seed;
+
+	// Most evaluations a solve remembers to skip evaluating the same planning again, 0 for none
+	public int evaluationCacheSize;
+
 
 
 
@@ -69,6 +79,12 @@ public class AlgorithmParameters {
 
     public void setPopulationSize(int size) { populationSize = size; }
 
+    public void setNumberOfThreads(int nbThreads) { numberOfThreads = nbThreads; }
+
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    public void setEvaluationCacheSize(int size) { evaluationCacheSize = size; }
+
 
     public SolverNRP.AlgorithmType getAlgorithmType() { return algorithmType; }
 
@@ -80,6 +96,12 @@ public class AlgorithmParameters {
 
     public int getPopulationSize() { return populationSize; }
 
+    public int getNumberOfThreads() { return numberOfThreads; }
+
+    public Long getSeed() { return seed; }
+
+    public int getEvaluationCacheSize() { return evaluationCacheSize; }
+
     public double getMutationProbability(int numberOfFeatures) {
         return 1.0/numberOfFeatures;
     }
@@ -0,0 +1,272 @@
+package io.swagger.api;
+
+import entities.parameters.AlgorithmParameters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Limits the number of solves running at the same time, whichever endpoint they come from. A solve that finds every
+ * slot taken waits in a bounded queue, in order of arrival, and is rejected when the queue is full, with an estimate
+ * of the time the solves ahead of it will take.
+ * <p>
+ * The cost of a solve is estimated as its number of features times its number of evaluations (the population size
+ * times the number of generations). Besides its number of solves, the queue can be bounded by the sum of their costs,
+ * and the time to wait is estimated from the cost solved per second by the previous solves.
+ * <p>
+ * A solve is admitted by the thread that runs it, so that a slot is only taken by a solve that is running, and its
+ * throughput is measured from its start: the jobs waiting for a solver thread are bounded by the queue of the jobs.
+ * <p>
+ * Its queue depth, waiting times and rejections are published as metrics, under replan.admission.
+ */
+@Component
+public class AdmissionController implements PublicMetrics {
+
+    private static final long MAX_RETRY_AFTER_SECONDS = 3600;
+    private static final double THROUGHPUT_SMOOTHING = 0.3;     // Weight of the last solve in the cost per second
+
+    private final int maxRunning;
+    private final int queueSize;
+    private final long maxQueuedCost;
+
+    private final Deque<Ticket> queue = new ArrayDeque<>();
+    private int running = 0;
+    private long runningCost = 0;
+    private long queuedCost = 0;
+
+    private long admitted = 0;
+    private long rejected = 0;
+    private long totalWaitMillis = 0;
+    private long maxWaitMillis = 0;
+    private double costPerSecond = 0.0;     // 0 until a solve is done
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * With the default limits: as many running solves as available processors, and 16 waiting ones
+     */
+    public AdmissionController() {
+        this(0, 16, 0);
+    }
+
+    /**
+     * @param maxRunning the most solves running at the same time, 0 for the number of available processors
+     * @param queueSize the most solves waiting for a running one to end, 0 to reject them all
+     * @param maxQueuedCost the most cost of the waiting solves, 0 for no limit
+     */
+    @Autowired
+    public AdmissionController(@Value("${replan.admission.maxConcurrentSolves:0}") int maxRunning,
+                               @Value("${replan.admission.queueSize:16}") int queueSize,
+                               @Value("${replan.admission.maxQueuedCost:0}") long maxQueuedCost) {
+        this.maxRunning = maxRunning > 0 ? maxRunning : Runtime.getRuntime().availableProcessors();
+        this.queueSize = Math.max(0, queueSize);
+        this.maxQueuedCost = maxQueuedCost;
+    }
+
+
+    /* --- ADMISSION --- */
+
+    /**
+     * @return the estimated cost of a solve of the given number of features with the given parameters
+     */
+    public static long costOf(int nbFeatures, AlgorithmParameters parameters) {
+        long population = Math.max(1, parameters.getPopulationSize());
+        long iterations = Math.max(1, parameters.getNumberOfIterations());
+        long evaluations;
+        switch (parameters.getAlgorithmType()) {
+            case NSGAII:
+            case SPEA2:
+                evaluations = population * iterations;      // The iterations are generations
+                break;
+            default:
+                evaluations = Math.max(population, iterations);     // The iterations are evaluations
+        }
+        return Math.max(1, nbFeatures) * evaluations;
+    }
+
+    /**
+     * Admits a solve of the given cost, running right away if a slot is free or waiting in the queue otherwise. The
+     * solve must {@link Ticket#await()} its turn, and then {@link Ticket#release()} its slot.
+     * @throws AdmissionRejectedException if the queue is full
+     */
+    public synchronized Ticket admit(long cost) throws AdmissionRejectedException {
+        Ticket ticket = new Ticket(cost);
+        if (running < maxRunning && queue.isEmpty()) {
+            ++admitted;
+            start(ticket);
+            return ticket;
+        }
+
+        checkQueue(cost);
+        ++admitted;
+        queue.addLast(ticket);
+        queuedCost += cost;
+        return ticket;
+    }
+
+    /**
+     * Checks that a solve of the given cost would be admitted now, without admitting it. Meant for the solves admitted
+     * once a thread is there to run them, such as the jobs, to be rejected when they are submitted already.
+     * @throws AdmissionRejectedException if the queue is full
+     */
+    public synchronized void checkRoom(long cost) throws AdmissionRejectedException {
+        if (running >= maxRunning || !queue.isEmpty())
+            checkQueue(cost);
+    }
+
+    /**
+     * @return the estimated number of seconds before the running and waiting solves are done
+     */
+    public synchronized long retryAfterSeconds() {
+        if (costPerSecond <= 0.0)
+            return 1;
+        double seconds = (runningCost + queuedCost) / (costPerSecond * maxRunning);
+        return Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, (long) Math.ceil(seconds)));
+    }
+
+
+    /* --- METRICS --- */
+
+    @Override
+    public synchronized Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>("replan.admission.running", running));
+        metrics.add(new Metric<>("replan.admission.queued", queue.size()));
+        metrics.add(new Metric<>("replan.admission.queuedCost", queuedCost));
+        metrics.add(new Metric<>("replan.admission.admitted", admitted));
+        metrics.add(new Metric<>("replan.admission.rejected", rejected));
+        metrics.add(new Metric<>("replan.admission.waitTime.max", maxWaitMillis));
+        metrics.add(new Metric<>("replan.admission.waitTime.total", totalWaitMillis));
+        metrics.add(new Metric<>("replan.admission.costPerSecond", costPerSecond));
+        return metrics;
+    }
+
+    public synchronized int getNbRunning() {
+        return running;
+    }
+
+    public synchronized int getNbQueued() {
+        return queue.size();
+    }
+
+    public synchronized long getNbRejected() {
+        return rejected;
+    }
+
+
+    /* --- PRIVATE --- */
+
+    // Rejects a solve of the given cost that would have to wait, if there is no room for it in the queue
+    private void checkQueue(long cost) throws AdmissionRejectedException {
+        boolean tooCostly = maxQueuedCost > 0 && !queue.isEmpty() && queuedCost + cost > maxQueuedCost;
+        if (queue.size() >= queueSize || tooCostly) {
+            ++rejected;
+            throw new AdmissionRejectedException(
+                    String.format("%d solves are running and %d are waiting", running, queue.size()),
+                    retryAfterSeconds());
+        }
+    }
+
+    private void start(Ticket ticket) {
+        ticket.started = true;
+        ticket.startTime = System.nanoTime();
+        ++running;
+        runningCost += ticket.cost;
+
+        long waitMillis = (ticket.startTime - ticket.admitTime) / 1000000;
+        totalWaitMillis += waitMillis;
+        maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+    }
+
+    // Starts the waiting solves there is room for
+    private void startWaiting() {
+        boolean started = false;
+        while (running < maxRunning && !queue.isEmpty()) {
+            Ticket ticket = queue.pollFirst();
+            queuedCost -= ticket.cost;
+            start(ticket);
+            started = true;
+        }
+        if (started)
+            notifyAll();
+    }
+
+    private void release(Ticket ticket) {
+        if (ticket.released)
+            return;
+        ticket.released = true;
+
+        if (!ticket.started) {
+            // Released while waiting
+            queue.remove(ticket);
+            queuedCost -= ticket.cost;
+            notifyAll();
+            return;
+        }
+
+        --running;
+        runningCost -= ticket.cost;
+        double seconds = (System.nanoTime() - ticket.startTime) / 1e9;
+        if (seconds > 0.0) {
+            double throughput = ticket.cost / seconds;
+            costPerSecond = costPerSecond <= 0.0 ? throughput :
+                    THROUGHPUT_SMOOTHING * throughput + (1.0 - THROUGHPUT_SMOOTHING) * costPerSecond;
+        }
+        startWaiting();
+    }
+
+    /**
+     * The place of a solve, running or waiting
+     */
+    public class Ticket {
+        private final long cost;
+        private final long admitTime = System.nanoTime();
+        private long startTime;
+        private boolean started = false;
+        private boolean released = false;
+
+        private Ticket(long cost) {
+            this.cost = cost;
+        }
+
+        /**
+         * Waits for the solve to be started
+         * @return true once it is, false if the ticket was released while waiting
+         * @throws InterruptedException if the thread is interrupted while waiting, releasing the ticket
+         */
+        public boolean await() throws InterruptedException {
+            synchronized (AdmissionController.this) {
+                try {
+                    while (!started && !released)
+                        AdmissionController.this.wait();
+                } catch (InterruptedException e) {
+                    AdmissionController.this.release(this);
+                    throw e;
+                }
+                return started;
+            }
+        }
+
+        /**
+         * Frees the place of the solve, whether it was started or is still waiting. Only the first call counts.
+         */
+        public void release() {
+            synchronized (AdmissionController.this) {
+                AdmissionController.this.release(this);
+            }
+        }
+
+        public long getCost() {
+            return cost;
+        }
+    }
+}
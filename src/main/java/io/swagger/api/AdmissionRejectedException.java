@@ -0,0 +1,23 @@
+package io.swagger.api;
+
+/**
+ * A solve the {@link AdmissionController} has no room for, that can be retried later
+ */
+public class AdmissionRejectedException extends Exception {
+
+    private static final long serialVersionUID = -6446728000756346197L; // Generated Id
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return the estimated number of seconds before the solves ahead of a new one are done
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,73 @@
+package io.swagger.api;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream failing as soon as more than a maximum number of bytes are read from it, so that a request body is
+ * rejected while it is parsed instead of after it is buffered.
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count = 0;
+    private boolean exceeded = false;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    public BoundedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+
+    /* --- READ --- */
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1)
+            count(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0)
+            count(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return true if the stream had more bytes than the maximum
+     */
+    public boolean isExceeded() {
+        return exceeded;
+    }
+
+
+    /* --- PRIVATE --- */
+
+    private void count(long n) throws IOException {
+        count += n;
+        if (count > maxBytes) {
+            exceeded = true;
+            throw new IOException("The stream is longer than " + maxBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package io.swagger.api;
+
+import io.swagger.model.ApiPlanningSolution;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The solves in flight, so that the same problem submitted again while it is solved, by a burst of clients, waits for
+ * the running solve instead of starting its own. Every waiter of a flight gets the same planning.
+ * <p>
+ * A flight is known by the key of its problem (see {@link ResultCache#keyOf}), and forgotten once it is finished: the
+ * plannings of the finished ones are the business of the {@link ResultCache}. The waiters are counted, so that one of
+ * them leaving does not cancel the solve of the others, and the last one leaving does.
+ * <p>
+ * Its flights, and the solves they saved, are published as metrics, under replan.flights.
+ */
+@Component
+public class InFlightSolves implements PublicMetrics {
+
+    private final Map<String, Flight> flights = new HashMap<>();
+
+    private long started = 0;
+    private long coalesced = 0;
+    private long cancelled = 0;
+
+
+    /* --- FLIGHTS --- */
+
+    /**
+     * Joins the flight of the problem with the given key, starting a new one if none is in flight. The first waiter of
+     * a flight must {@link Waiter#start} or {@link Waiter#abandon} it, and every waiter must {@link Waiter#leave()} it.
+     * @param key the key of the problem, null for a flight no other problem can join
+     */
+    public synchronized Waiter join(String key) {
+        Flight flight = key == null ? null : flights.get(key);
+        boolean first = flight == null;
+        if (first) {
+            flight = new Flight(key);
+            if (key != null)
+                flights.put(key, flight);
+            ++started;
+        } else {
+            ++coalesced;
+        }
+        ++flight.waiters;
+        return new Waiter(flight, first);
+    }
+
+
+    /* --- METRICS --- */
+
+    @Override
+    public synchronized Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>("replan.flights.inFlight", flights.size()));
+        metrics.add(new Metric<>("replan.flights.started", started));
+        metrics.add(new Metric<>("replan.flights.coalesced", coalesced));
+        metrics.add(new Metric<>("replan.flights.cancelled", cancelled));
+        return metrics;
+    }
+
+    public synchronized int size() {
+        return flights.size();
+    }
+
+    public synchronized long getNbCoalesced() {
+        return coalesced;
+    }
+
+
+    /* --- PRIVATE --- */
+
+    // Must be called with the lock held
+    private void finish(Flight flight, ApiPlanningSolution result, Throwable error) {
+        if (flight.done)
+            return;
+        flight.done = true;
+        flight.result = result;
+        flight.error = error;
+        if (flight.key != null && flights.get(flight.key) == flight)
+            flights.remove(flight.key);
+        notifyAll();
+    }
+
+    private static class Flight {
+        private final String key;
+        private int waiters = 0;
+        private Callable<ApiPlanningSolution> solve;
+        private Runnable canceller;
+        private boolean running = false;
+        private boolean done = false;
+        private boolean cancelled = false;
+        private ApiPlanningSolution result;
+        private Throwable error;
+
+        Flight(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * The place of a client in a flight
+     */
+    public class Waiter {
+        private final Flight flight;
+        private final boolean first;
+        private boolean left = false;
+
+        private Waiter(Flight flight, boolean first) {
+            this.flight = flight;
+            this.first = first;
+        }
+
+        /**
+         * @return true for the waiter that started the flight, which is to give it its solve
+         */
+        public boolean isFirst() {
+            return first;
+        }
+
+        /**
+         * Gives its solve to the flight, run by the first waiter to {@link #await()} it
+         * @param canceller called if every waiter leaves before the solve is done
+         */
+        public void start(Callable<ApiPlanningSolution> solve, Runnable canceller) {
+            synchronized (InFlightSolves.this) {
+                flight.solve = solve;
+                flight.canceller = canceller;
+                InFlightSolves.this.notifyAll();
+            }
+        }
+
+        /**
+         * Finishes the flight without solving it, with the given error for all its waiters
+         */
+        public void abandon(Throwable error) {
+            synchronized (InFlightSolves.this) {
+                finish(flight, null, error);
+            }
+        }
+
+        /**
+         * Waits for the planning of the flight, solving it on the calling thread if no other waiter is
+         * @throws ExecutionException if the solve failed, or the flight was abandoned
+         * @throws CancellationException if every waiter left before the solve was done
+         */
+        public ApiPlanningSolution await() throws InterruptedException, ExecutionException {
+            Callable<ApiPlanningSolution> solve;
+            synchronized (InFlightSolves.this) {
+                while (!flight.done && (flight.solve == null || flight.running))
+                    InFlightSolves.this.wait();
+                if (flight.done)
+                    return outcome();
+                flight.running = true;
+                solve = flight.solve;
+            }
+
+            ApiPlanningSolution result = null;
+            Throwable error = null;
+            try {
+                result = solve.call();
+            } catch (Exception e) {
+                error = e;
+            }
+
+            synchronized (InFlightSolves.this) {
+                finish(flight, result, error);
+                return outcome();
+            }
+        }
+
+        /**
+         * Leaves the flight, cancelling it if it is not done and this was its last waiter. Only the first call counts.
+         */
+        public void leave() {
+            Runnable canceller = null;
+            synchronized (InFlightSolves.this) {
+                if (left)
+                    return;
+                left = true;
+
+                if (--flight.waiters == 0 && !flight.done) {
+                    flight.cancelled = true;
+                    ++cancelled;
+                    canceller = flight.canceller;
+                    finish(flight, null, null);
+                }
+            }
+            if (canceller != null)
+                canceller.run();
+        }
+
+        // Must be called with the lock held, once the flight is done
+        private ApiPlanningSolution outcome() throws ExecutionException {
+            if (flight.cancelled)
+                throw new CancellationException("Every waiter of the solve left");
+            if (flight.error != null)
+                throw new ExecutionException(flight.error);
+            return flight.result;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package io.swagger.api;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import entities.Employee;
+import entities.Feature;
+import entities.PlannedFeature;
+import entities.PriorityLevel;
+import entities.Skill;
+import entities.parameters.AlgorithmParameters;
+import io.swagger.model.ApiNextReleaseProblem;
+import io.swagger.model.ApiPlanningSolution;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming {@link TypeAdapter}s of the API model, written by hand so that Gson does not go through reflection for
+ * every entity of a request or a response. They read and write the same JSON as the reflective adapters: the same
+ * names in the same order, null fields left out and unknown names skipped. A null list is read as an empty one.
+ * <p>
+ * {@link AlgorithmParameters} and {@link PriorityLevel} are left to the adapters of the {@link Gson} creating these.
+ */
+public class ModelAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Skill.class)
+            return (TypeAdapter<T>) new SkillAdapter();
+        if (rawType == Feature.class)
+            return (TypeAdapter<T>) new FeatureAdapter(gson);
+        if (rawType == Employee.class)
+            return (TypeAdapter<T>) new EmployeeAdapter(gson);
+        if (rawType == PlannedFeature.class)
+            return (TypeAdapter<T>) new PlannedFeatureAdapter(gson);
+        if (rawType == ApiPlanningSolution.class)
+            return (TypeAdapter<T>) new PlanningSolutionAdapter(gson);
+        if (rawType == ApiNextReleaseProblem.class)
+            return (TypeAdapter<T>) new NextReleaseProblemAdapter(gson);
+        return null;
+    }
+
+
+    /* --- ADAPTERS --- */
+
+    private static class SkillAdapter extends TypeAdapter<Skill> {
+        @Override
+        public void write(JsonWriter out, Skill skill) throws IOException {
+            if (skill == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("name").value(skill.getName());
+            out.endObject();
+        }
+
+        @Override
+        public Skill read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Skill skill = new Skill();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("name"))
+                    skill.setName(nextString(in));
+                else
+                    in.skipValue();
+            }
+            in.endObject();
+            return skill;
+        }
+    }
+
+    private static class FeatureAdapter extends TypeAdapter<Feature> {
+        private final TypeAdapter<PriorityLevel> priorityAdapter;
+        private final TypeAdapter<Skill> skillAdapter;
+
+        FeatureAdapter(Gson gson) {
+            priorityAdapter = gson.getAdapter(PriorityLevel.class);
+            skillAdapter = gson.getAdapter(Skill.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Feature feature) throws IOException {
+            if (feature == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("name").value(feature.getName());
+            out.name("priority");
+            priorityAdapter.write(out, feature.getPriority());
+            out.name("duration").value(feature.getDuration());
+            out.name("required_skills");
+            writeList(out, feature.getRequiredSkills(), skillAdapter);
+            out.name("depends_on");
+            writeList(out, feature.getPreviousFeatures(), this);
+            out.endObject();
+        }
+
+        @Override
+        public Feature read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String name = null;
+            PriorityLevel priority = null;
+            double duration = 0.0;
+            List<Skill> requiredSkills = null;
+            List<Feature> previousFeatures = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "priority":
+                        priority = priorityAdapter.read(in);
+                        break;
+                    case "duration":
+                        duration = in.nextDouble();
+                        break;
+                    case "required_skills":
+                        requiredSkills = readList(in, skillAdapter);
+                        break;
+                    case "depends_on":
+                        previousFeatures = readList(in, this);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Feature(name, priority, duration, previousFeatures, requiredSkills);
+        }
+    }
+
+    private static class EmployeeAdapter extends TypeAdapter<Employee> {
+        private final TypeAdapter<Skill> skillAdapter;
+
+        EmployeeAdapter(Gson gson) {
+            skillAdapter = gson.getAdapter(Skill.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Employee employee) throws IOException {
+            if (employee == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("name").value(employee.getName());
+            out.name("skills");
+            writeList(out, employee.getSkills(), skillAdapter);
+            out.name("availability").value(employee.getWeekAvailability());
+            out.endObject();
+        }
+
+        @Override
+        public Employee read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Employee employee = new Employee();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        employee.setName(nextString(in));
+                        break;
+                    case "skills":
+                        employee.setSkills(readList(in, skillAdapter));
+                        break;
+                    case "availability":
+                        employee.setWeekAvailability(in.nextDouble());
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return employee;
+        }
+    }
+
+    private static class PlannedFeatureAdapter extends TypeAdapter<PlannedFeature> {
+        private final TypeAdapter<Employee> employeeAdapter;
+        private final TypeAdapter<Feature> featureAdapter;
+
+        PlannedFeatureAdapter(Gson gson) {
+            employeeAdapter = gson.getAdapter(Employee.class);
+            featureAdapter = gson.getAdapter(Feature.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, PlannedFeature job) throws IOException {
+            if (job == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("frozen").value(job.isFrozen());
+            out.name("beginHour").value(job.getBeginHour());
+            out.name("resource");
+            employeeAdapter.write(out, job.getEmployee());
+            out.name("endHour").value(job.getEndHour());
+            out.name("feature");
+            featureAdapter.write(out, job.getFeature());
+            out.endObject();
+        }
+
+        @Override
+        public PlannedFeature read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            PlannedFeature job = new PlannedFeature();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "frozen":
+                        job.setFrozen(in.nextBoolean());
+                        break;
+                    case "beginHour":
+                        job.setBeginHour(in.nextDouble());
+                        break;
+                    case "resource":
+                        job.setEmployee(employeeAdapter.read(in));
+                        break;
+                    case "endHour":
+                        job.setEndHour(in.nextDouble());
+                        break;
+                    case "feature":
+                        job.setFeature(featureAdapter.read(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return job;
+        }
+    }
+
+    private static class PlanningSolutionAdapter extends TypeAdapter<ApiPlanningSolution> {
+        private final TypeAdapter<PlannedFeature> jobAdapter;
+
+        PlanningSolutionAdapter(Gson gson) {
+            jobAdapter = gson.getAdapter(PlannedFeature.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ApiPlanningSolution solution) throws IOException {
+            if (solution == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("jobs");
+            writeList(out, solution.getJobs(), jobAdapter);
+            out.endObject();
+        }
+
+        @Override
+        public ApiPlanningSolution read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ApiPlanningSolution solution = new ApiPlanningSolution();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("jobs"))
+                    solution.setJobs(readList(in, jobAdapter));
+                else
+                    in.skipValue();
+            }
+            in.endObject();
+            return solution;
+        }
+    }
+
+    private static class NextReleaseProblemAdapter extends TypeAdapter<ApiNextReleaseProblem> {
+        private final TypeAdapter<ApiPlanningSolution> solutionAdapter;
+        private final TypeAdapter<Feature> featureAdapter;
+        private final TypeAdapter<Employee> employeeAdapter;
+        private final TypeAdapter<AlgorithmParameters> parametersAdapter;
+
+        NextReleaseProblemAdapter(Gson gson) {
+            solutionAdapter = gson.getAdapter(ApiPlanningSolution.class);
+            featureAdapter = gson.getAdapter(Feature.class);
+            employeeAdapter = gson.getAdapter(Employee.class);
+            parametersAdapter = gson.getAdapter(AlgorithmParameters.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ApiNextReleaseProblem problem) throws IOException {
+            if (problem == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("previousSolution");
+            solutionAdapter.write(out, problem.getPreviousSolution());
+            out.name("nbWeeks").value(problem.getNbWeeks());
+            out.name("hoursPerWeek").value(problem.getHoursPerWeek());
+            out.name("features");
+            writeList(out, problem.getFeatures(), featureAdapter);
+            out.name("resources");
+            writeList(out, problem.getResources(), employeeAdapter);
+            out.name("algorithmParameters");
+            parametersAdapter.write(out, problem.getAlgorithmParameters());
+            out.endObject();
+        }
+
+        @Override
+        public ApiNextReleaseProblem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ApiNextReleaseProblem problem = new ApiNextReleaseProblem();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "previousSolution":
+                        problem.setPreviousSolution(solutionAdapter.read(in));
+                        break;
+                    case "nbWeeks":
+                        problem.setNbWeeks(in.nextInt());
+                        break;
+                    case "hoursPerWeek":
+                        problem.setHoursPerWeek(in.nextDouble());
+                        break;
+                    case "features":
+                        problem.setFeatures(readList(in, featureAdapter));
+                        break;
+                    case "resources":
+                        problem.setResources(readList(in, employeeAdapter));
+                        break;
+                    case "algorithmParameters":
+                        problem.setAlgorithmParameters(parametersAdapter.read(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return problem;
+        }
+    }
+
+
+    /* --- PRIVATE --- */
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static <T> void writeList(JsonWriter out, List<T> list, TypeAdapter<T> adapter) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (T element : list)
+            adapter.write(out, element);
+        out.endArray();
+    }
+
+    private static <T> List<T> readList(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+        List<T> list = new ArrayList<>();
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return list;
+        }
+        in.beginArray();
+        while (in.hasNext())
+            list.add(adapter.read(in));
+        in.endArray();
+        return list;
+    }
+}
@@ -0,0 +1,125 @@
+package io.swagger.api;
+
+import com.google.gson.stream.JsonWriter;
+import io.swagger.model.ApiPlanningSolution;
+import logic.PlanningSolution;
+import logic.SolveListener;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * The server-sent events of a replan job:
+ * <ul>
+ *     <li>job: the job, once it is submitted, whose id can cancel it</li>
+ *     <li>progress: every few generations of its solve, the generation, the number of evaluations, and the objectives
+ *     and the {@link SolutionWriter.View#COMPACT} plan of the best solution so far</li>
+ *     <li>result: the planning of the done job, in the view of the request</li>
+ *     <li>failed or cancelled: the job, if it is not done</li>
+ * </ul>
+ * The stream is completed once the job is finished. The job is cancelled if the stream is closed before.
+ */
+public class ProgressStream implements SolveListener {
+
+    private final SseEmitter emitter;
+    private final SolutionWriter solutionWriter;
+    private final SolutionWriter.View view;
+
+    private SolverJob job;
+    private boolean closed = false;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * @param view the view of the result
+     */
+    public ProgressStream(SseEmitter emitter, SolutionWriter solutionWriter, SolutionWriter.View view) {
+        this.emitter = emitter;
+        this.solutionWriter = solutionWriter;
+        this.view = view;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+    }
+
+
+    /* --- EVENTS --- */
+
+    /**
+     * Submits the given solve, whose progress this stream follows, as a job, and sends it as the first event
+     * @throws java.util.concurrent.RejectedExecutionException if the jobs don't accept it
+     */
+    public synchronized SolverJob start(SolverJobs jobs, Callable<ApiPlanningSolution> solve) {
+        job = jobs.submit(solve);
+        send("job", job.toJson().toString());
+        job.whenFinished(this::finish);
+        return job;
+    }
+
+    @Override
+    public synchronized void onProgress(int generation, int evaluations, PlanningSolution best) {
+        if (closed)
+            return;
+
+        StringWriter data = new StringWriter();
+        try {
+            JsonWriter out = new JsonWriter(data);
+            out.beginObject();
+            out.name("generation").value(generation);
+            out.name("evaluations").value(evaluations);
+            out.name("objectives").beginArray();
+            for (int i = 0; i < best.getNumberOfObjectives(); ++i)
+                out.value(best.getObjective(i));
+            out.endArray();
+            out.name("plan").jsonValue(
+                    solutionWriter.toJson(new ApiPlanningSolution(best), SolutionWriter.View.COMPACT));
+            out.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);     // A StringWriter does not throw
+        }
+        send("progress", data.toString());
+    }
+
+    private synchronized void finish(SolverJob job) {
+        if (job.getStatus() == SolverJob.Status.DONE)
+            send("result", solutionWriter.toJson(job.getResult(), view));
+        else
+            send(job.getStatus().name().toLowerCase(Locale.ENGLISH), job.toJson().toString());
+
+        if (!closed) {
+            closed = true;
+            emitter.complete();
+        }
+    }
+
+
+    /* --- PRIVATE --- */
+
+    private void send(String name, String data) {
+        if (closed)
+            return;
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone, there is no point in solving for it
+            closed = true;
+            if (job != null)
+                job.cancel();
+        }
+    }
+
+    // The stream was completed or timed out, by this or by the server
+    private void close() {
+        SolverJob job;
+        synchronized (this) {
+            closed = true;
+            job = this.job;
+        }
+        if (job != null)
+            job.cancel();
+    }
+}
@@ -0,0 +1,420 @@
+package io.swagger.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import entities.Employee;
+import entities.Feature;
+import entities.PlannedFeature;
+import entities.PriorityLevel;
+import entities.Skill;
+import entities.parameters.AlgorithmParameters;
+import io.swagger.model.ApiNextReleaseProblem;
+import io.swagger.model.ApiPlanningSolution;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes an {@link ApiNextReleaseProblem} in the schema of {@link ReplanGson#REFERENCES_CONTENT_TYPE}, where
+ * features, skills and resources are written once and referenced by id everywhere else:
+ * <pre>
+ * {
+ *   "nbWeeks": 3, "hoursPerWeek": 40.0,
+ *   "skills": [{"id": "s1", "name": "Java"}],
+ *   "features": [{"id": 1, "name": "Login", "duration": 20.0, "priority": 3, "required_skills": ["s1"], "depends_on": [2]}],
+ *   "resources": [{"id": "r1", "name": "Ann", "availability": 36.0, "skills": ["s1"]}],
+ *   "previousSolution": {"jobs": [{"feature": 1, "resource": "r1", "beginHour": 0.0, "endHour": 20.0, "frozen": true}]},
+ *   "algorithmParameters": {...}
+ * }
+ * </pre>
+ * Ids are strings or numbers, and default to the name of the entity. The "skills" section is optional: a skill id
+ * that is not in it is the name of the skill. The references are resolved once the whole problem is read, so they
+ * can point forward, and an unknown feature or resource id is a syntax error.
+ */
+public class ReferencedProblemAdapter extends TypeAdapter<ApiNextReleaseProblem> {
+
+    private final TypeAdapter<PriorityLevel> priorityAdapter;
+    private final TypeAdapter<AlgorithmParameters> parametersAdapter;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * @param gson the Gson reading and writing the priorities and the algorithm parameters
+     */
+    public ReferencedProblemAdapter(Gson gson) {
+        priorityAdapter = gson.getAdapter(PriorityLevel.class);
+        parametersAdapter = gson.getAdapter(AlgorithmParameters.class);
+    }
+
+
+    /* --- READ --- */
+
+    @Override
+    public ApiNextReleaseProblem read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        ApiNextReleaseProblem problem = new ApiNextReleaseProblem();
+        References references = new References();
+        List<FeatureEntry> features = new ArrayList<>();
+        List<ResourceEntry> resources = new ArrayList<>();
+        List<JobEntry> jobs = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "nbWeeks":
+                    problem.setNbWeeks(in.nextInt());
+                    break;
+                case "hoursPerWeek":
+                    problem.setHoursPerWeek(in.nextDouble());
+                    break;
+                case "skills":
+                    readSkills(in, references);
+                    break;
+                case "features":
+                    in.beginArray();
+                    while (in.hasNext())
+                        features.add(readFeature(in));
+                    in.endArray();
+                    break;
+                case "resources":
+                    in.beginArray();
+                    while (in.hasNext())
+                        resources.add(readResource(in));
+                    in.endArray();
+                    break;
+                case "previousSolution":
+                    jobs = readJobs(in);
+                    break;
+                case "algorithmParameters":
+                    problem.setAlgorithmParameters(parametersAdapter.read(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        // Every entity is known, the references can be linked
+        List<Feature> featureList = new ArrayList<>(features.size());
+        for (FeatureEntry entry : features) {
+            entry.feature = new Feature(entry.name, entry.priority, entry.duration, new ArrayList<>(),
+                    references.skills(entry.requiredSkills));
+            references.features.putIfAbsent(entry.id, entry.feature);
+            featureList.add(entry.feature);
+        }
+        for (FeatureEntry entry : features)
+            for (String id : entry.dependencies)
+                entry.feature.getPreviousFeatures().add(references.feature(id));
+
+        List<Employee> employeeList = new ArrayList<>(resources.size());
+        for (ResourceEntry entry : resources) {
+            Employee employee = new Employee(entry.name, entry.availability, references.skills(entry.skills));
+            references.employees.putIfAbsent(entry.id, employee);
+            employeeList.add(employee);
+        }
+        problem.setFeatures(featureList);
+        problem.setResources(employeeList);
+
+        if (jobs != null) {
+            ApiPlanningSolution previousSolution = new ApiPlanningSolution();
+            for (JobEntry entry : jobs) {
+                PlannedFeature job = new PlannedFeature(references.feature(entry.feature), references.employee(entry.resource));
+                job.setBeginHour(entry.beginHour);
+                job.setEndHour(entry.endHour);
+                job.setFrozen(entry.frozen);
+                previousSolution.getJobs().add(job);
+            }
+            problem.setPreviousSolution(previousSolution);
+        }
+
+        return problem;
+    }
+
+    private void readSkills(JsonReader in, References references) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            String id = null;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = in.nextString();
+                        break;
+                    case "name":
+                        name = in.nextString();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            references.skills.putIfAbsent(id == null ? name : id, new Skill(name));
+        }
+        in.endArray();
+    }
+
+    private FeatureEntry readFeature(JsonReader in) throws IOException {
+        FeatureEntry entry = new FeatureEntry();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    entry.id = in.nextString();
+                    break;
+                case "name":
+                    entry.name = in.nextString();
+                    break;
+                case "duration":
+                    entry.duration = in.nextDouble();
+                    break;
+                case "priority":
+                    entry.priority = priorityAdapter.read(in);
+                    break;
+                case "required_skills":
+                    entry.requiredSkills = readIds(in);
+                    break;
+                case "depends_on":
+                    entry.dependencies = readIds(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (entry.id == null)
+            entry.id = entry.name;
+        return entry;
+    }
+
+    private ResourceEntry readResource(JsonReader in) throws IOException {
+        ResourceEntry entry = new ResourceEntry();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    entry.id = in.nextString();
+                    break;
+                case "name":
+                    entry.name = in.nextString();
+                    break;
+                case "availability":
+                    entry.availability = in.nextDouble();
+                    break;
+                case "skills":
+                    entry.skills = readIds(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (entry.id == null)
+            entry.id = entry.name;
+        return entry;
+    }
+
+    private List<JobEntry> readJobs(JsonReader in) throws IOException {
+        List<JobEntry> jobs = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!in.nextName().equals("jobs")) {
+                in.skipValue();
+                continue;
+            }
+
+            in.beginArray();
+            while (in.hasNext()) {
+                JobEntry entry = new JobEntry();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "feature":
+                            entry.feature = in.nextString();
+                            break;
+                        case "resource":
+                            entry.resource = in.nextString();
+                            break;
+                        case "beginHour":
+                            entry.beginHour = in.nextDouble();
+                            break;
+                        case "endHour":
+                            entry.endHour = in.nextDouble();
+                            break;
+                        case "frozen":
+                            entry.frozen = in.nextBoolean();
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                jobs.add(entry);
+            }
+            in.endArray();
+        }
+        in.endObject();
+        return jobs;
+    }
+
+    // An array of ids, strings or numbers
+    private List<String> readIds(JsonReader in) throws IOException {
+        List<String> ids = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext())
+            ids.add(in.nextString());
+        in.endArray();
+        return ids;
+    }
+
+
+    /* --- WRITE --- */
+
+    /**
+     * Writes the problem with the names of the entities as their ids
+     */
+    @Override
+    public void write(JsonWriter out, ApiNextReleaseProblem problem) throws IOException {
+        if (problem == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("nbWeeks").value(problem.getNbWeeks());
+        out.name("hoursPerWeek").value(problem.getHoursPerWeek());
+
+        out.name("features").beginArray();
+        for (Feature feature : problem.getFeatures())
+            writeFeature(out, feature);
+        out.endArray();
+
+        out.name("resources").beginArray();
+        for (Employee employee : problem.getResources())
+            writeResource(out, employee);
+        out.endArray();
+
+        if (problem.getPreviousSolution() != null) {
+            out.name("previousSolution").beginObject();
+            out.name("jobs").beginArray();
+            for (PlannedFeature job : problem.getPreviousSolution().getJobs()) {
+                out.beginObject();
+                out.name("feature").value(job.getFeature().getName());
+                out.name("resource").value(job.getEmployee().getName());
+                out.name("beginHour").value(job.getBeginHour());
+                out.name("endHour").value(job.getEndHour());
+                out.name("frozen").value(job.isFrozen());
+                out.endObject();
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        if (problem.getAlgorithmParameters() != null) {
+            out.name("algorithmParameters");
+            parametersAdapter.write(out, problem.getAlgorithmParameters());
+        }
+        out.endObject();
+    }
+
+
+    // A feature, referencing its skills and dependencies by name
+    void writeFeature(JsonWriter out, Feature feature) throws IOException {
+        out.beginObject();
+        out.name("name").value(feature.getName());
+        out.name("duration").value(feature.getDuration());
+        out.name("priority");
+        priorityAdapter.write(out, feature.getPriority());
+        out.name("required_skills").beginArray();
+        for (Skill skill : feature.getRequiredSkills())
+            out.value(skill.getName());
+        out.endArray();
+        out.name("depends_on").beginArray();
+        for (Feature dependency : feature.getPreviousFeatures())
+            out.value(dependency.getName());
+        out.endArray();
+        out.endObject();
+    }
+
+    // A resource, referencing its skills by name
+    void writeResource(JsonWriter out, Employee employee) throws IOException {
+        out.beginObject();
+        out.name("name").value(employee.getName());
+        out.name("availability").value(employee.getWeekAvailability());
+        out.name("skills").beginArray();
+        for (Skill skill : employee.getSkills())
+            out.value(skill.getName());
+        out.endArray();
+        out.endObject();
+    }
+
+
+    /* --- PRIVATE --- */
+
+    // The entities read so far, by id
+    private static class References {
+        private final Map<String, Skill> skills = new HashMap<>();
+        private final Map<String, Feature> features = new HashMap<>();
+        private final Map<String, Employee> employees = new HashMap<>();
+
+        List<Skill> skills(List<String> ids) {
+            List<Skill> list = new ArrayList<>(ids.size());
+            for (String id : ids)
+                list.add(skills.computeIfAbsent(id, Skill::new));
+            return list;
+        }
+
+        Feature feature(String id) {
+            Feature feature = features.get(id);
+            if (feature == null)
+                throw new JsonSyntaxException("Unknown feature id: " + id);
+            return feature;
+        }
+
+        Employee employee(String id) {
+            Employee employee = employees.get(id);
+            if (employee == null)
+                throw new JsonSyntaxException("Unknown resource id: " + id);
+            return employee;
+        }
+    }
+
+    private static class FeatureEntry {
+        String id;
+        String name;
+        double duration;
+        PriorityLevel priority;
+        List<String> requiredSkills = new ArrayList<>();
+        List<String> dependencies = new ArrayList<>();
+        Feature feature;
+    }
+
+    private static class ResourceEntry {
+        String id;
+        String name;
+        double availability;
+        List<String> skills = new ArrayList<>();
+    }
+
+    private static class JobEntry {
+        String feature;
+        String resource;
+        double beginHour;
+        double endHour;
+        boolean frozen;
+    }
+}
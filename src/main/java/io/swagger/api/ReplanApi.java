@@ -6,25 +6,93 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 @javax.annotation.Generated(value = "class io.swagger.codegen.languages.SpringCodegen", date = "2016-10-01T15:48:29.618Z")
 
 @Api(value = "replan", description = "the replan API")
 public interface ReplanApi {
 
-    @ApiOperation(value = "Generates a Planning Solution for a given Next Release Problem", notes = "", response = String.class, tags={  })
+    @ApiOperation(value = "Generates a Planning Solution for a given Next Release Problem", notes = "The view query parameter (full, compact or dictionary) sets how much of the features and resources of the jobs is returned. The X-Replan-Cache header tells whether the planning comes from the result cache (HIT), which a Cache-Control: no-cache or no-store request header bypasses", response = String.class, tags={  })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Success", response = String.class),
         @ApiResponse(code = 400, message = "Bad Request", response = String.class),
-        @ApiResponse(code = 422, message = "Unprocessable Entity", response = String.class) })
+        @ApiResponse(code = 413, message = "Payload Too Large", response = String.class),
+        @ApiResponse(code = 422, message = "Unprocessable Entity", response = String.class),
+        @ApiResponse(code = 429, message = "Too Many Requests", response = String.class) })
     @RequestMapping(value = "/replan",
         produces = { "application/json" }, 
         method = RequestMethod.POST)
 
-    ResponseEntity<String> replan(HttpServletRequest request);
+    ResponseEntity<String> replan(HttpServletRequest request, HttpServletResponse response);
+
+
+    @ApiOperation(value = "Queues the replan of a Next Release Problem as an asynchronous job", notes = "Answers the job, whose Location has its status, right away. A problem whose planning is in the result cache is done without being solved again", response = String.class, tags={  })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 202, message = "Accepted", response = String.class),
+        @ApiResponse(code = 400, message = "Bad Request", response = String.class),
+        @ApiResponse(code = 413, message = "Payload Too Large", response = String.class),
+        @ApiResponse(code = 429, message = "Too Many Requests", response = String.class),
+        @ApiResponse(code = 503, message = "Service Unavailable", response = String.class) })
+    @RequestMapping(value = "/replan/jobs",
+        produces = { "application/json" }, 
+        method = RequestMethod.POST)
+
+    ResponseEntity<String> submitJob(HttpServletRequest request);
+
+
+    @ApiOperation(value = "Replans a Next Release Problem as a job streaming its progress as server-sent events", notes = "Events: job, progress (the best plan so far, every number of generations of the generations query parameter), and then result, failed or cancelled", response = String.class, tags={  })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success", response = String.class),
+        @ApiResponse(code = 400, message = "Bad Request", response = String.class),
+        @ApiResponse(code = 413, message = "Payload Too Large", response = String.class),
+        @ApiResponse(code = 429, message = "Too Many Requests", response = String.class),
+        @ApiResponse(code = 503, message = "Service Unavailable", response = String.class) })
+    @RequestMapping(value = "/replan/progress",
+        produces = { "text/event-stream" }, 
+        method = RequestMethod.POST)
+
+    SseEmitter replanProgress(HttpServletRequest request, HttpServletResponse response);
+
+
+    @ApiOperation(value = "Status of a replan job", notes = "", response = String.class, tags={  })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success", response = String.class),
+        @ApiResponse(code = 404, message = "Not Found", response = String.class) })
+    @RequestMapping(value = "/replan/jobs/{id}",
+        produces = { "application/json" }, 
+        method = RequestMethod.GET)
+
+    ResponseEntity<String> getJob(@PathVariable("id") String id);
+
+
+    @ApiOperation(value = "Planning Solution of a done replan job", notes = "The view query parameter is the one of /replan", response = String.class, tags={  })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success", response = String.class),
+        @ApiResponse(code = 400, message = "Bad Request", response = String.class),
+        @ApiResponse(code = 404, message = "Not Found", response = String.class),
+        @ApiResponse(code = 409, message = "Conflict", response = String.class) })
+    @RequestMapping(value = "/replan/jobs/{id}/result",
+        produces = { "application/json" }, 
+        method = RequestMethod.GET)
+
+    ResponseEntity<String> getJobResult(@PathVariable("id") String id, HttpServletRequest request, HttpServletResponse response);
+
+
+    @ApiOperation(value = "Cancels a replan job", notes = "A running solve is stopped, unless other jobs or requests wait for the same solve", response = String.class, tags={  })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success", response = String.class),
+        @ApiResponse(code = 404, message = "Not Found", response = String.class) })
+    @RequestMapping(value = "/replan/jobs/{id}",
+        produces = { "application/json" }, 
+        method = RequestMethod.DELETE)
+
+    ResponseEntity<String> cancelJob(@PathVariable("id") String id);
 
 }
@@ -2,18 +2,41 @@ package io.swagger.api;
 
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import entities.parameters.AlgorithmParameters;
 import io.swagger.model.ApiNextReleaseProblem;
 import io.swagger.model.ApiPlanningSolution;
+import logic.CancellationToken;
 import logic.NextReleaseProblem;
 import logic.PlanningSolution;
+import logic.SolveListener;
 import logic.SolverNRP;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
-import java.io.BufferedReader;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 @javax.annotation.Generated(value = "class io.swagger.codegen.languages.SpringCodegen", date = "2016-10-01T15:48:29.618Z")
@@ -22,57 +45,565 @@ import java.io.BufferedReader;
 public class ReplanApiController implements ReplanApi {
 
     private static Gson gson = ReplanGson.getGson();
+    private static SolutionWriter solutionWriter = new SolutionWriter(gson);
 
+    /**
+     * Response header telling whether the planning comes from the result cache: HIT, MISS or BYPASS (the request has
+     * a Cache-Control: no-cache or no-store header)
+     */
+    public static final String CACHE_HEADER = "X-Replan-Cache";
+    private static final String CACHE_HIT = "HIT";
+    private static final String CACHE_MISS = "MISS";
+    private static final String CACHE_BYPASS = "BYPASS";
 
+    // Threads evaluating the solutions of the requests that don't set their own number of threads
+    @Value("${replan.evaluation.threads:1}")
+    private int defaultNumberOfThreads = 1;
+
+    // Most threads a single request can use, 0 for the number of available processors
+    @Value("${replan.evaluation.maxThreads:0}")
+    private int maxNumberOfThreads = 0;
+
+    // Most bytes of a request body, longer bodies are rejected while they are read
+    @Value("${replan.request.maxBodySize:52428800}")
+    private long maxBodySize = 52428800;
+
+    // Threads running the solves of the asynchronous jobs, apart from the threads of the server
+    @Value("${replan.jobs.threads:1}")
+    private int jobThreads = 1;
+
+    // Most jobs waiting for a solver thread
+    @Value("${replan.jobs.queueSize:16}")
+    private int jobQueueSize = 16;
+
+    // Seconds a finished job is kept
+    @Value("${replan.jobs.retention:3600}")
+    private long jobRetention = 3600;
+
+    // Seconds a solve runs at most before it is stopped with the best planning found so far, 0 for no limit
+    @Value("${replan.solve.timeLimit:0}")
+    private long solveTimeLimit = 0;
+
+    // Generations between two progress events of a stream that does not set its own
+    @Value("${replan.progress.generations:10}")
+    private int progressGenerations = 10;
+
+    private SolverJobs jobs;    // Created on the first use, once the values are injected
+
+    // Shared by all the solves, the default limits when it is not injected
+    @Autowired(required = false)
+    private AdmissionController admission;
+
+    @Autowired(required = false)
+    private ResultCache resultCache;
+
+    @Autowired(required = false)
+    private InFlightSolves inFlightSolves;
+
+
+    /**
+     * Replans without a servlet response to write to, returning the planning as the body of the response entity
+     */
     public ResponseEntity<String> replan(HttpServletRequest request) {
+        return replan(request, null);
+    }
+
+    /**
+     * Writes the planning straight to the given response, if any, returning null once it is written. Otherwise, or
+     * on error, the response entity has the body.
+     */
+    public ResponseEntity<String> replan(HttpServletRequest request, HttpServletResponse response) {
+
+        SolutionWriter.View view;
+        try {
+            view = SolutionWriter.View.fromName(request.getParameter("view"));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<String>("Unknown view", HttpStatus.BAD_REQUEST);
+        }
+
+        InFlightSolves.Waiter waiter;
+        try {
+            ApiNextReleaseProblem p = readProblem(request);
+            String hash = ResultCache.keyOf(p);
+            String key = cacheKeyOf(hash, request);
+            ApiPlanningSolution cached = lookUp(key, request);
+            if (cached != null)
+                return answer(cached, view, response, CACHE_HIT);
+
+            waiter = join(p, hash, key);
+        } catch (RequestException e) {
+            return e.getResponse();
+        } catch (IOException e) {
+            return null;    // The client is gone
+        }
+
+        try {
+            ApiPlanningSolution apiSolution = waiter.await();
+            if (apiSolution == null)
+                return new ResponseEntity<String>("The solve was cancelled", HttpStatus.SERVICE_UNAVAILABLE);
+
+            return answer(apiSolution, view, response, bypassesCache(request) ? CACHE_BYPASS : CACHE_MISS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RequestException)
+                return ((RequestException) e.getCause()).getResponse();     // The first request of the solve
+            if (e.getCause() instanceof JsonSyntaxException)
+                return new ResponseEntity<String>("Invalid JSON", HttpStatus.BAD_REQUEST);
+            if (e.getCause() instanceof InterruptedException)
+                return shuttingDown();
+            return somethingWentBad();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return shuttingDown();
+        } catch (IOException e) {
+            return null;    // The client is gone, the response is already committed
+        } catch (Exception e) {
+            return somethingWentBad();
+        } finally {
+            waiter.leave();
+        }
+    }
+
+
+    /* --- JOBS --- */
+
+    /**
+     * Queues the replan of the request on the solver threads, answering 202 (Accepted) with the job right away
+     */
+    public ResponseEntity<String> submitJob(HttpServletRequest request) {
+        ApiNextReleaseProblem p;
+        String hash;
+        String key;
+        try {
+            p = readProblem(request);
+            hash = ResultCache.keyOf(p);
+            key = cacheKeyOf(hash, request);
+        } catch (RequestException e) {
+            return e.getResponse();
+        }
+
+        SolverJob job;
+        ApiPlanningSolution cached = lookUp(key, request);
+        if (cached != null) {
+            try {
+                job = getJobs().submit(() -> cached);
+            } catch (RejectedExecutionException e) {
+                return new ResponseEntity<String>("Too many queued jobs", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        } else {
+            InFlightSolves.Waiter waiter;
+            try {
+                waiter = join(p, hash, key);
+            } catch (RequestException e) {
+                return e.getResponse();
+            }
+
+            try {
+                job = getJobs().submit(waiter::await);
+            } catch (RejectedExecutionException e) {
+                waiter.leave();
+                return new ResponseEntity<String>("Too many queued jobs", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            job.whenFinished(finished -> waiter.leave());       // The last job of the solve to leave cancels it
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(URI.create("jobs/" + job.getId()));
+        return new ResponseEntity<String>(job.toJson().toString(), headers, HttpStatus.ACCEPTED);
+    }
+
+    public ResponseEntity<String> getJob(String id) {
+        SolverJob job = getJobs().get(id);
+        if (job == null)
+            return unknownJob(id);
+        return new ResponseEntity<String>(job.toJson().toString(), HttpStatus.OK);
+    }
+
+    /**
+     * Answers the planning of a done job, in the view of the request, 409 (Conflict) with the job if it is not done
+     */
+    public ResponseEntity<String> getJobResult(String id, HttpServletRequest request, HttpServletResponse response) {
+        SolutionWriter.View view;
+        try {
+            view = SolutionWriter.View.fromName(request.getParameter("view"));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<String>("Unknown view", HttpStatus.BAD_REQUEST);
+        }
+
+        SolverJob job = getJobs().get(id);
+        if (job == null)
+            return unknownJob(id);
+
+        ApiPlanningSolution result = job.getResult();
+        if (result == null)
+            return new ResponseEntity<String>(job.toJson().toString(), HttpStatus.CONFLICT);
+
+        if (response == null)
+            return new ResponseEntity<String>(solutionWriter.toJson(result, view), HttpStatus.OK);
+
+        try {
+            writeSolution(result, view, response);
+        } catch (IOException e) {
+            // The client is gone
+        }
+        return null;
+    }
+
+    public ResponseEntity<String> cancelJob(String id) {
+        SolverJob job = getJobs().cancel(id);
+        if (job == null)
+            return unknownJob(id);
+        return new ResponseEntity<String>(job.toJson().toString(), HttpStatus.OK);
+    }
+
+    /**
+     * Solves the request as a job, streaming its progress as server-sent events (see {@link ProgressStream}). A
+     * request that cannot be solved is answered on the given response, returning null.
+     */
+    public SseEmitter replanProgress(HttpServletRequest request, HttpServletResponse response) {
+        SolutionWriter.View view;
+        try {
+            view = SolutionWriter.View.fromName(request.getParameter("view"));
+        } catch (IllegalArgumentException e) {
+            return writeError(new ResponseEntity<String>("Unknown view", HttpStatus.BAD_REQUEST), response);
+        }
+
+        int everyGenerations = parseGenerations(request.getParameter("generations"));
+        if (everyGenerations < 1)
+            return writeError(new ResponseEntity<String>(
+                    "The number of generations must be a positive integer", HttpStatus.BAD_REQUEST), response);
+
+        NextReleaseProblem problem;
+        try {
+            problem = toProblem(readProblem(request));
+            checkRoom(problem);
+        } catch (RequestException e) {
+            return writeError(e.getResponse(), response);
+        }
+
+        SseEmitter emitter = new SseEmitter(0L);    // No timeout, the end of the job completes it
+        ProgressStream stream = new ProgressStream(emitter, solutionWriter, view);
+        CancellationToken token = new CancellationToken();
+        AtomicReference<AdmissionController.Ticket> ticket = new AtomicReference<>();
+        try {
+            SolverJob job = stream.start(getJobs(), () -> solve(problem, ticket, token, stream, everyGenerations));
+            // Stops the solve of a job cancelled or closed before it is done
+            job.whenFinished(finished -> cancel(token, ticket));
+        } catch (RejectedExecutionException e) {
+            return writeError(
+                    new ResponseEntity<String>("Too many queued jobs", HttpStatus.SERVICE_UNAVAILABLE), response);
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (jobs != null)
+            jobs.shutdown();
+    }
+
+
+    public void setMaxBodySize(long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public synchronized void setAdmission(AdmissionController admission) {
+        this.admission = admission;
+    }
+
+    public synchronized void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public synchronized void setInFlightSolves(InFlightSolves inFlightSolves) {
+        this.inFlightSolves = inFlightSolves;
+    }
+
+
+    /* --- PRIVATE --- */
 
-        // Deserialize
-        String content = requestContentAsString(request);
-        if (content == null)
-            return new ResponseEntity<String>("", HttpStatus.BAD_REQUEST);
+    // Deserializes the problem from the body: a body of known length fails before it is read, the others while read
+    private ApiNextReleaseProblem readProblem(HttpServletRequest request) throws RequestException {
+        if (request.getContentLength() > maxBodySize)
+            throw new RequestException(bodyTooLarge());
 
+        ApiNextReleaseProblem p;
+        BoundedInputStream body = null;
         try {
-            ApiNextReleaseProblem p = gson.fromJson(content, ApiNextReleaseProblem.class);
+            body = new BoundedInputStream(request.getInputStream(), maxBodySize);
+            JsonReader reader = new JsonReader(new InputStreamReader(body, charsetOf(request)));
+            p = ReplanGson.getGson(request.getContentType()).fromJson(reader, ApiNextReleaseProblem.class);
+        } catch (JsonParseException | IOException e) {
+            if (body != null && body.isExceeded())
+                throw new RequestException(bodyTooLarge());
+            throw new RequestException(new ResponseEntity<String>("Invalid JSON", HttpStatus.BAD_REQUEST));
+        }
+        if (p == null)
+            throw new RequestException(new ResponseEntity<String>("", HttpStatus.BAD_REQUEST));
+        return p;
+    }
 
-            // Convert to internal model
+    // Converts the problem to the internal model, with the server limits applied to its parameters
+    private NextReleaseProblem toProblem(ApiNextReleaseProblem p) throws RequestException {
+        try {
             NextReleaseProblem problem =
                     new NextReleaseProblem(p.getFeatures(), p.getResources(), p.getNbWeeks(), p.getHoursPerWeek());
             problem.setPreviousSolution(p.getPreviousSolution());
 
+            if (p.getAlgorithmParameters() != null)
+                problem.setAlgorithmParameters(p.getAlgorithmParameters());
+            setNumberOfThreads(problem.getAlgorithmParameters());
+            return problem;
+        } catch (JsonSyntaxException e) {
+            throw new RequestException(new ResponseEntity<String>("Invalid JSON", HttpStatus.BAD_REQUEST));
+        } catch (RuntimeException e) {
+            throw new RequestException(somethingWentBad());
+        }
+    }
+
+    // Admits the solve of the problem, answering 429 (Too Many Requests) if there is no room for it
+    private AdmissionController.Ticket admit(NextReleaseProblem problem) throws RequestException {
+        try {
+            return getAdmission().admit(costOf(problem));
+        } catch (AdmissionRejectedException e) {
+            throw tooManySolves(e);
+        }
+    }
 
-            // Execute
-            SolverNRP solver = new SolverNRP();
+    // Checks that the solve of the problem would be admitted now, answering 429 (Too Many Requests) otherwise
+    private void checkRoom(NextReleaseProblem problem) throws RequestException {
+        try {
+            getAdmission().checkRoom(costOf(problem));
+        } catch (AdmissionRejectedException e) {
+            throw tooManySolves(e);
+        }
+    }
+
+    private static long costOf(NextReleaseProblem problem) {
+        return AdmissionController.costOf(problem.getFeatures().size(), problem.getAlgorithmParameters());
+    }
+
+    private static RequestException tooManySolves(AdmissionRejectedException e) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+        return new RequestException(new ResponseEntity<String>(
+                "Too many solves: " + e.getMessage(), headers, HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    /*
+        Admits the problem on the calling thread, and solves it once its ticket, also set to the given reference, gets
+        its turn, until the token is cancelled or the time limit is passed, with the given listener, if any, following
+        the solve every given number of generations. Returns null if the solve was cancelled before its turn.
+    */
+    private ApiPlanningSolution solve(NextReleaseProblem problem, AtomicReference<AdmissionController.Ticket> admission,
+                                      CancellationToken token, SolveListener listener, int everyGenerations)
+            throws RequestException, InterruptedException {
+        AdmissionController.Ticket ticket = admit(problem);
+        admission.set(ticket);
+        try {
+            // Cancelled before it was admitted, or while waiting for its turn (see cancel)
+            if (token.isCancelled() || !ticket.await())
+                return null;
 
-            problem.setAlgorithmParameters(problem.getAlgorithmParameters());
+            SolverNRP solver = new SolverNRP();
+            solver.setListener(listener, everyGenerations);
+            solver.setCancellationToken(token);
+            if (solveTimeLimit > 0)
+                solver.setDeadline(Instant.now().plusSeconds(solveTimeLimit));
             PlanningSolution solution = solver.executeNRP(problem);
 
-            ApiPlanningSolution apiSolution = new ApiPlanningSolution(solution);
+            return new ApiPlanningSolution(solution);
+        } finally {
+            ticket.release();
+        }
+    }
+
+    // Stops the solve of the token, and gives up its ticket if it is waiting for its turn
+    private static void cancel(CancellationToken token, AtomicReference<AdmissionController.Ticket> admission) {
+        token.cancel();
+        AdmissionController.Ticket ticket = admission.get();
+        if (ticket != null)
+            ticket.release();
+    }
+
+    /*
+        Joins the solve in flight of the problem with the given hash, if any. Otherwise checks there is room for the
+        problem and starts its solve, whose planning is cached with the given key. The solve is run, and admitted, by
+        the first of its waiters to await it, and stopped, or its admission given up, if they all leave before it is
+        done.
+    */
+    private InFlightSolves.Waiter join(ApiNextReleaseProblem p, String hash, String key) throws RequestException {
+        InFlightSolves.Waiter waiter = getInFlightSolves().join(hash);
+        if (!waiter.isFirst())
+            return waiter;
 
-            return new ResponseEntity<String>(gson.toJson(apiSolution), HttpStatus.OK);
+        NextReleaseProblem problem;
+        try {
+            problem = toProblem(p);
+            checkRoom(problem);
+        } catch (RequestException e) {
+            waiter.abandon(e);      // The waiters that joined meanwhile get the same answer
+            waiter.leave();
+            throw e;
         }
-        catch (JsonSyntaxException e) {
-            return new ResponseEntity<String>("Invalid JSON", HttpStatus.BAD_REQUEST);
-        } catch (Exception e) {
-            return new ResponseEntity<String>(
-                    "Something went bad. There's a slight chance of the problem being that you passed some really " +
-                            "unexpected data. If that's not the case, it might actually be out fault.",
-                    HttpStatus.INTERNAL_SERVER_ERROR);
+
+        CancellationToken token = new CancellationToken();
+        AtomicReference<AdmissionController.Ticket> ticket = new AtomicReference<>();
+        waiter.start(() -> {
+            ApiPlanningSolution solution = solve(problem, ticket, token, null, 0);
+            getResultCache().put(key, solution);
+            return solution;
+        }, () -> cancel(token, ticket));
+        return waiter;
+    }
+
+    /*
+        The key of the problem of the given hash in the result cache, null if its planning is not to be cached: the
+        cache is disabled, the request has a Cache-Control: no-store header, or the problem cannot be written.
+    */
+    private String cacheKeyOf(String hash, HttpServletRequest request) {
+        if (!getResultCache().isEnabled() || hasCacheDirective(request, "no-store"))
+            return null;
+        return hash;
+    }
+
+    // The cached planning of the problem with the given key, unless the request bypasses the cache
+    private ApiPlanningSolution lookUp(String key, HttpServletRequest request) {
+        if (key == null || bypassesCache(request))
+            return null;
+        return getResultCache().get(key);
+    }
+
+    private static boolean bypassesCache(HttpServletRequest request) {
+        return hasCacheDirective(request, "no-cache") || hasCacheDirective(request, "no-store");
+    }
+
+    private static boolean hasCacheDirective(HttpServletRequest request, String directive) {
+        String cacheControl = request.getHeader(HttpHeaders.CACHE_CONTROL);
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ENGLISH).contains(directive);
+    }
+
+    private synchronized ResultCache getResultCache() {
+        if (resultCache == null)
+            resultCache = new ResultCache();
+        return resultCache;
+    }
+
+    private synchronized InFlightSolves getInFlightSolves() {
+        if (inFlightSolves == null)
+            inFlightSolves = new InFlightSolves();
+        return inFlightSolves;
+    }
+
+    private synchronized AdmissionController getAdmission() {
+        if (admission == null)
+            admission = new AdmissionController();
+        return admission;
+    }
+
+    private synchronized SolverJobs getJobs() {
+        if (jobs == null)
+            jobs = new SolverJobs(jobThreads, jobQueueSize, jobRetention);
+        return jobs;
+    }
+
+    // Applies the server default and limit to the number of threads asked by the request
+    private void setNumberOfThreads(AlgorithmParameters parameters) {
+        int maxThreads = maxNumberOfThreads > 0 ? maxNumberOfThreads : Runtime.getRuntime().availableProcessors();
+        int nbThreads = parameters.getNumberOfThreads() > 0 ? parameters.getNumberOfThreads() : defaultNumberOfThreads;
+        parameters.setNumberOfThreads(Math.max(1, Math.min(nbThreads, maxThreads)));
+    }
+
+    // Answers the planning, on the response if there is one, telling whether it comes from the result cache
+    private ResponseEntity<String> answer(ApiPlanningSolution solution, SolutionWriter.View view,
+                                          HttpServletResponse response, String cacheStatus) throws IOException {
+        if (response == null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(CACHE_HEADER, cacheStatus);
+            return new ResponseEntity<String>(solutionWriter.toJson(solution, view), headers, HttpStatus.OK);
         }
+
+        response.setHeader(CACHE_HEADER, cacheStatus);
+        writeSolution(solution, view, response);
+        return null;
     }
 
-    private String requestContentAsString(HttpServletRequest request) {
-        StringBuffer buffer = new StringBuffer();
-        String line = null;
+    private void writeSolution(ApiPlanningSolution solution, SolutionWriter.View view, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        solutionWriter.write(solution, view, writer);
+    }
+
+    private ResponseEntity<String> bodyTooLarge() {
+        return new ResponseEntity<String>(
+                String.format("The request body is longer than %d bytes", maxBodySize), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    // The generations between two progress events, 0 if they are not a number
+    private int parseGenerations(String generations) {
         try {
-            BufferedReader reader = request.getReader();
-            while ((line = reader.readLine()) != null)
-                buffer.append(line);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+            return generations == null ? progressGenerations : Integer.parseInt(generations);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Answers the error on the response, for the methods that don't return a response entity
+    private static <T> T writeError(ResponseEntity<String> error, HttpServletResponse response) {
+        try {
+            response.setStatus(error.getStatusCode().value());
+            response.setContentType("text/plain");
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(error.getBody());
+            response.getWriter().flush();
+        } catch (IOException e) {
+            // The client is gone
         }
+        return null;
+    }
+
+    private static ResponseEntity<String> somethingWentBad() {
+        return new ResponseEntity<String>(
+                "Something went bad. There's a slight chance of the problem being that you passed some really " +
+                        "unexpected data. If that's not the case, it might actually be out fault.",
+                HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static ResponseEntity<String> shuttingDown() {
+        return new ResponseEntity<String>("The server is shutting down", HttpStatus.SERVICE_UNAVAILABLE);
+    }
 
-        return buffer.toString();
+    private ResponseEntity<String> unknownJob(String id) {
+        return new ResponseEntity<String>("Unknown job: " + id, HttpStatus.NOT_FOUND);
+    }
+
+    // The charset of the body, UTF-8 unless the request sets a supported one
+    private static Charset charsetOf(HttpServletRequest request) {
+        String encoding = request.getCharacterEncoding();
+        try {
+            if (encoding != null && Charset.isSupported(encoding))
+                return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            // An illegal charset name
+        }
+        return StandardCharsets.UTF_8;
+    }
+    // A request that cannot be replanned, with the response answering it
+    private static class RequestException extends Exception {
+        private static final long serialVersionUID = 1713247836435899708L; // Generated Id
+        private final ResponseEntity<String> response;
+
+        RequestException(ResponseEntity<String> response) {
+            super(response.getBody());      // The error of a job it fails
+            this.response = response;
+        }
+
+        ResponseEntity<String> getResponse() {
+            return response;
+        }
     }
 
 }
@@ -2,19 +2,31 @@ package io.swagger.api;
 
 import com.google.gson.*;
 import entities.PriorityLevel;
+import io.swagger.model.ApiNextReleaseProblem;
 import logic.SolverNRP;
 
 import java.lang.reflect.Type;
+import java.util.Locale;
 
 /**
  * Initializes a Gson instance customized for JSON (de)serialization of all the necessary Replan entities.
  * See <a href="https://github.com/google/gson">Gson documentation</a> for further details on custom (de)serializers.
+ * <p>
+ * Problems sent as {@link #REFERENCES_CONTENT_TYPE} reference their features, skills and resources by id instead of
+ * repeating them, see {@link ReferencedProblemAdapter}.
  *
  * @author kredes
  */
 public class ReplanGson {
 
+    /**
+     * Content type of the problems whose entities are referenced by id
+     */
+    public static final String REFERENCES_CONTENT_TYPE = "application/vnd.replan.refs+json";
+
     private static final Gson gson;
+    private static final Gson referencesGson;
+    private static final Gson reflectiveGson;
 
     static {
         JsonSerializer<PriorityLevel> prioritySerializer = new JsonSerializer<PriorityLevel>() {
@@ -61,10 +73,42 @@ public class ReplanGson {
         gsonBuilder.registerTypeAdapter(PriorityLevel.class, priorityDeserializer);
         gsonBuilder.registerTypeAdapter(SolverNRP.AlgorithmType.class, algorithmTypeDeserializer);
 
+        reflectiveGson = gsonBuilder.create();
+
+        // Every other entity of the model without reflection
+        gsonBuilder.registerTypeAdapterFactory(new ModelAdapterFactory());
         gson = gsonBuilder.create();
+
+        gsonBuilder.registerTypeAdapter(ApiNextReleaseProblem.class, new ReferencedProblemAdapter(gson));
+        referencesGson = gsonBuilder.create();
     }
 
     public static Gson getGson() {
         return gson;
     }
+
+    /**
+     * @return a Gson reading and writing the same JSON as {@link #getGson()}, through reflection instead of the
+     * adapters of {@link ModelAdapterFactory}. Meant for comparisons.
+     */
+    public static Gson getReflectiveGson() {
+        return reflectiveGson;
+    }
+
+    /**
+     * @return the Gson reading and writing problems whose entities are referenced by id
+     */
+    public static Gson getReferencesGson() {
+        return referencesGson;
+    }
+
+    /**
+     * @return the Gson for a request body of the given content type, the default one unless it is
+     * {@link #REFERENCES_CONTENT_TYPE}
+     */
+    public static Gson getGson(String contentType) {
+        if (contentType != null && contentType.toLowerCase(Locale.ENGLISH).startsWith(REFERENCES_CONTENT_TYPE))
+            return referencesGson;
+        return gson;
+    }
 }
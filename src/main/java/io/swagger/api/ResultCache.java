@@ -0,0 +1,173 @@
+package io.swagger.api;
+
+import com.google.gson.Gson;
+import io.swagger.model.ApiNextReleaseProblem;
+import io.swagger.model.ApiPlanningSolution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The plannings of the last problems solved, so that a problem submitted again, by a page refresh or by another user,
+ * is answered without solving it again. The least recently used planning is forgotten once the cache is full, and
+ * every planning once it is older than the time to live.
+ * <p>
+ * A problem is known by a hash of its canonical JSON (see {@link #keyOf(ApiNextReleaseProblem)}). Its hits, misses
+ * and evictions are published as metrics, under replan.cache.
+ */
+@Component
+public class ResultCache implements PublicMetrics {
+
+    private static final Gson canonicalGson = ReplanGson.getReferencesGson();
+
+    private final int capacity;
+    private final long timeToLiveMillis;
+    private final Map<String, CachedPlanning> plannings;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * With the default limits: 64 plannings, for 10 minutes
+     */
+    public ResultCache() {
+        this(64, 600);
+    }
+
+    /**
+     * @param capacity the most plannings kept, 0 to disable the cache
+     * @param timeToLiveSeconds the time a planning is kept, 0 for no limit
+     */
+    @Autowired
+    public ResultCache(@Value("${replan.cache.size:64}") int capacity,
+                       @Value("${replan.cache.ttl:600}") long timeToLiveSeconds) {
+        this.capacity = Math.max(0, capacity);
+        this.timeToLiveMillis = timeToLiveSeconds * 1000;
+        plannings = new LinkedHashMap<String, CachedPlanning>(16, 0.75f, true) {
+            private static final long serialVersionUID = 2605533325751445110L; // Generated Id
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPlanning> eldest) {
+                if (size() <= ResultCache.this.capacity)
+                    return false;
+                ++evictions;
+                return true;
+            }
+        };
+    }
+
+
+    /* --- KEYS --- */
+
+    /**
+     * The SHA-256 of the problem written in the schema of {@link ReplanGson#REFERENCES_CONTENT_TYPE}: every entity once,
+     * in the order of the request, referenced by name, with the previous solution and all the algorithm parameters,
+     * seed included. The same problem gives the same key whatever its JSON looked like.
+     * @return the key, null if the problem is too incomplete to be written
+     */
+    public static String keyOf(ApiNextReleaseProblem problem) {
+        String json;
+        try {
+            json = canonicalGson.toJson(problem, ApiNextReleaseProblem.class);
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(2 * digest.length);
+            for (byte b : digest)
+                key.append(String.format("%02x", b));
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);     // Every JVM has SHA-256
+        }
+    }
+
+
+    /* --- CACHE --- */
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * @return the planning of the problem with the given key, null if it is not in the cache or is too old
+     */
+    public synchronized ApiPlanningSolution get(String key) {
+        CachedPlanning entry = key == null ? null : plannings.get(key);
+        if (entry != null && isExpired(entry)) {
+            plannings.remove(key);
+            ++evictions;
+            entry = null;
+        }
+
+        if (entry == null) {
+            ++misses;
+            return null;
+        }
+        ++hits;
+        return entry.planning;
+    }
+
+    public synchronized void put(String key, ApiPlanningSolution planning) {
+        if (key != null && planning != null && isEnabled())
+            plannings.put(key, new CachedPlanning(planning));
+    }
+
+    public synchronized void clear() {
+        plannings.clear();
+    }
+
+
+    /* --- METRICS --- */
+
+    @Override
+    public synchronized Collection<Metric<?>> metrics() {
+        long lookups = hits + misses;
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>("replan.cache.size", plannings.size()));
+        metrics.add(new Metric<>("replan.cache.hits", hits));
+        metrics.add(new Metric<>("replan.cache.misses", misses));
+        metrics.add(new Metric<>("replan.cache.hitRate", lookups == 0 ? 0.0 : (double) hits / lookups));
+        metrics.add(new Metric<>("replan.cache.evictions", evictions));
+        return metrics;
+    }
+
+    public synchronized int size() { return plannings.size(); }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+
+    /* --- PRIVATE --- */
+
+    private boolean isExpired(CachedPlanning entry) {
+        return timeToLiveMillis > 0 && System.currentTimeMillis() - entry.created > timeToLiveMillis;
+    }
+
+    private static class CachedPlanning {
+        private final ApiPlanningSolution planning;
+        private final long created = System.currentTimeMillis();
+
+        CachedPlanning(ApiPlanningSolution planning) {
+            this.planning = planning;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.swagger.api;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import entities.Employee;
+import entities.Feature;
+import entities.PlannedFeature;
+import io.swagger.model.ApiPlanningSolution;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Writes an {@link ApiPlanningSolution} as JSON straight to a {@link Writer}, such as the output stream of the
+ * response, in one of the {@link View}s of a planning.
+ */
+public class SolutionWriter {
+
+    /**
+     * How much of the entities of the planning is written
+     */
+    public enum View {
+        /**
+         * Every job with its whole feature and resource, dependencies included, as {@link ReplanGson#getGson()}
+         */
+        FULL,
+        /**
+         * Every job with the ids (names) of its feature and resource and its hours
+         */
+        COMPACT,
+        /**
+         * The compact jobs, and the features and resources they reference, once, in the schema of
+         * {@link ReplanGson#REFERENCES_CONTENT_TYPE}
+         */
+        DICTIONARY;
+
+        /**
+         * @return the view of the given name, case insensitive, {@link #FULL} for null
+         * @throws IllegalArgumentException if there is no view with that name
+         */
+        public static View fromName(String name) {
+            return name == null ? FULL : valueOf(name.toUpperCase(Locale.ENGLISH));
+        }
+    }
+
+    private final Gson gson;
+    private final ReferencedProblemAdapter entities;     // Writes the features and resources of the dictionary
+
+
+    /* --- CONSTRUCTORS --- */
+
+    public SolutionWriter(Gson gson) {
+        this.gson = gson;
+        entities = new ReferencedProblemAdapter(gson);
+    }
+
+
+    /* --- WRITE --- */
+
+    public String toJson(ApiPlanningSolution solution, View view) {
+        StringWriter writer = new StringWriter();
+        try {
+            write(solution, view, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);     // A StringWriter does not throw
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the solution to the given writer, and flushes it
+     */
+    public void write(ApiPlanningSolution solution, View view, Writer writer) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        switch (view) {
+            case FULL:
+                gson.toJson(solution, ApiPlanningSolution.class, out);
+                break;
+            case COMPACT:
+                out.beginObject();
+                writeJobs(out, solution);
+                out.endObject();
+                break;
+            case DICTIONARY:
+                out.beginObject();
+                writeDictionary(out, solution);
+                writeJobs(out, solution);
+                out.endObject();
+                break;
+        }
+        out.flush();
+    }
+
+
+    /* --- PRIVATE --- */
+
+    private void writeJobs(JsonWriter out, ApiPlanningSolution solution) throws IOException {
+        out.name("jobs").beginArray();
+        for (PlannedFeature job : solution.getJobs()) {
+            out.beginObject();
+            out.name("feature").value(job.getFeature().getName());
+            out.name("resource").value(job.getEmployee().getName());
+            out.name("beginHour").value(job.getBeginHour());
+            out.name("endHour").value(job.getEndHour());
+            out.name("frozen").value(job.isFrozen());
+            out.endObject();
+        }
+        out.endArray();
+    }
+
+    // The features and the resources of the jobs
+    private void writeDictionary(JsonWriter out, ApiPlanningSolution solution) throws IOException {
+        Set<Feature> features = new LinkedHashSet<>();
+        Set<Employee> resources = new LinkedHashSet<>();
+        for (PlannedFeature job : solution.getJobs()) {
+            features.add(job.getFeature());
+            resources.add(job.getEmployee());
+        }
+
+        out.name("features").beginArray();
+        for (Feature feature : features)
+            entities.writeFeature(out, feature);
+        out.endArray();
+
+        out.name("resources").beginArray();
+        for (Employee employee : resources)
+            entities.writeResource(out, employee);
+        out.endArray();
+    }
+}
@@ -0,0 +1,177 @@
+package io.swagger.api;
+
+import com.google.gson.JsonObject;
+import io.swagger.model.ApiPlanningSolution;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * A replan submitted to the {@link SolverJobs}, run on one of their solver threads. A job is queued until a thread
+ * runs it, and then done, failed or cancelled. Cancelling a job that is running discards its result, the solve is to
+ * be stopped by a callback of {@link #whenFinished(Consumer)}.
+ */
+public class SolverJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private final String id;
+    private final Instant submitted = Instant.now();
+    private Instant started;
+    private Instant finished;
+    private Status status = Status.QUEUED;
+    private ApiPlanningSolution result;
+    private String error;
+    private Future<?> future;
+    private List<Consumer<SolverJob>> finishedCallbacks = new ArrayList<>();
+
+
+    /* --- CONSTRUCTORS --- */
+
+    SolverJob(String id) {
+        this.id = id;
+    }
+
+
+    /* --- GETTERS --- */
+
+    public String getId() {
+        return id;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the planning of a done job, null otherwise
+     */
+    public synchronized ApiPlanningSolution getResult() {
+        return result;
+    }
+
+    /**
+     * @return the reason a job failed, null otherwise
+     */
+    public synchronized String getError() {
+        return error;
+    }
+
+    /**
+     * @return the time the job was finished at, null while it is not
+     */
+    public synchronized Instant getFinished() {
+        return finished;
+    }
+
+    /**
+     * The id, status and times of the job, and the error of a failed one
+     */
+    public synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", id);
+        json.addProperty("status", status.name());
+        json.addProperty("submitted", submitted.toString());
+        if (started != null)
+            json.addProperty("started", started.toString());
+        if (finished != null)
+            json.addProperty("finished", finished.toString());
+        if (error != null)
+            json.addProperty("error", error);
+        return json;
+    }
+
+
+    /* --- LIFECYCLE --- */
+
+    /**
+     * Cancels the job, unless it is finished
+     * @return true if the job was cancelled by this call
+     */
+    public boolean cancel() {
+        synchronized (this) {
+            if (status.isFinished())
+                return false;
+
+            finish(Status.CANCELLED);
+            if (future != null)
+                future.cancel(false);
+        }
+        runFinishedCallbacks();
+        return true;
+    }
+
+    /**
+     * Calls the given callback once the job is finished, right away if it already is. The callback is called on the
+     * thread finishing the job.
+     */
+    public void whenFinished(Consumer<SolverJob> callback) {
+        synchronized (this) {
+            if (!status.isFinished()) {
+                finishedCallbacks.add(callback);
+                return;
+            }
+        }
+        callback.accept(this);
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+        if (status == Status.CANCELLED)
+            future.cancel(false);
+    }
+
+    // Runs the solve on the calling thread, unless the job was cancelled while queued
+    void run(Callable<ApiPlanningSolution> solve) {
+        synchronized (this) {
+            if (status != Status.QUEUED)
+                return;
+            status = Status.RUNNING;
+            started = Instant.now();
+        }
+
+        try {
+            ApiPlanningSolution solution = solve.call();
+            synchronized (this) {
+                if (status != Status.RUNNING)
+                    return;
+                result = solution;
+                finish(Status.DONE);
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                if (status != Status.RUNNING)
+                    return;
+                error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+                finish(Status.FAILED);
+            }
+        }
+        runFinishedCallbacks();
+    }
+
+    private void finish(Status status) {
+        this.status = status;
+        finished = Instant.now();
+    }
+
+    // Called once the job is finished, out of its lock
+    private void runFinishedCallbacks() {
+        List<Consumer<SolverJob>> callbacks;
+        synchronized (this) {
+            callbacks = finishedCallbacks;
+            finishedCallbacks = new ArrayList<>();
+        }
+        for (Consumer<SolverJob> callback : callbacks)
+            callback.accept(this);
+    }
+}
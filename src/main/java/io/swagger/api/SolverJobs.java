@@ -0,0 +1,116 @@
+package io.swagger.api;
+
+import io.swagger.model.ApiPlanningSolution;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The asynchronous replans: a fixed number of solver threads, apart from the threads of the HTTP server, and a bounded
+ * queue of the jobs waiting for them. Finished jobs are kept for a retention time, so that their status and result
+ * can be fetched, and forgotten at the next submission after it.
+ */
+public class SolverJobs {
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, SolverJob> jobs = new ConcurrentHashMap<>();
+    private final long retentionSeconds;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * @param nbThreads the number of solver threads
+     * @param queueSize the most jobs waiting for a solver thread
+     * @param retentionSeconds the time a finished job is kept
+     */
+    public SolverJobs(int nbThreads, int queueSize, long retentionSeconds) {
+        this.retentionSeconds = retentionSeconds;
+        executor = new ThreadPoolExecutor(nbThreads, nbThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), new SolverThreadFactory());
+    }
+
+
+    /* --- JOBS --- */
+
+    /**
+     * Queues a job running the given solve
+     * @throws RejectedExecutionException if the queue is full or the jobs are shut down
+     */
+    public SolverJob submit(Callable<ApiPlanningSolution> solve) {
+        purge();
+
+        SolverJob job = new SolverJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> job.run(solve)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * @return the job with the given id, null if there is none
+     */
+    public SolverJob get(String id) {
+        return id == null ? null : jobs.get(id);
+    }
+
+    /**
+     * Cancels the job with the given id, unless it is finished
+     * @return the job, null if there is none with this id
+     */
+    public SolverJob cancel(String id) {
+        SolverJob job = get(id);
+        if (job != null)
+            job.cancel();
+        return job;
+    }
+
+    /**
+     * @return the number of jobs waiting for a solver thread
+     */
+    public int getNbQueued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Cancels the queued and running jobs, and stops the solver threads once the running ones are done
+     */
+    public void shutdown() {
+        for (SolverJob job : jobs.values())
+            job.cancel();       // Does nothing to the finished ones
+        executor.shutdown();
+    }
+
+
+    /* --- PRIVATE --- */
+
+    // Forgets the jobs finished before the retention time
+    private void purge() {
+        Instant limit = Instant.now().minusSeconds(retentionSeconds);
+        jobs.values().removeIf(job -> job.getFinished() != null && job.getFinished().isBefore(limit));
+    }
+
+    private static class SolverThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "replan-solver-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package logic;
+
+/**
+ * Cancels the solves it is given to, from any thread. A cancelled solve stops at its next evaluation and returns the
+ * best solution it has found (see {@link SolverNRP#setCancellationToken(CancellationToken)}).
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled = false;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,305 @@
+package logic;
+
+import entities.Employee;
+import entities.Feature;
+import entities.Skill;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Dense and immutable view of the input of a {@link NextReleaseProblem}, built once when the problem is constructed.
+ * <p>
+ * Features, employees and skills get consecutive integer ids (their position in the problem lists) and everything the
+ * solver needs on its hot paths is stored in primitive arrays indexed by those ids:
+ * <ul>
+ *     <li>duration and priority score of every feature</li>
+ *     <li>the dependencies of every feature and the features depending on it, in CSR form</li>
+ *     <li>the required skills of every feature as a bitset over the ids of a {@link SkillIndex}</li>
+ *     <li>the employees that have all the skills required by every feature, and the other way around</li>
+ *     <li>the Zobrist keys fingerprinting the plannings of the problem</li>
+ * </ul>
+ * The arrays and lists returned by the getters are shared, callers must not modify them.
+ */
+public class CompiledProblem {
+
+    /**
+     * Id given to a dependency that is not part of the problem (for example, because nobody can do it).
+     * Such a dependency can never be planned.
+     */
+    public static final int UNKNOWN = -1;
+
+    private static final int[] EMPTY = new int[0];
+
+    // The keys are the same on every run, so that the fingerprints, and the hash based collections, are reproducible
+    private static final long KEYS_SEED = 0x5DEECE66DL;
+
+    private final Feature[] features;
+    private final Employee[] employees;
+    private final SkillIndex skillIndex;
+
+    // Interned entities (see EntityRegistry) are looked up by identity, the other equal instances by name
+    private final Map<Feature, Integer> featureIdentities = new IdentityHashMap<>();
+    private final Map<Employee, Integer> employeeIdentities = new IdentityHashMap<>();
+    private final Map<String, Integer> featureIds = new HashMap<>();
+    private final Map<String, Integer> employeeIds = new HashMap<>();
+
+    private final double[] durations;
+    private final int[] priorityScores;
+    private final double[] weekAvailabilities;
+
+    // The dependencies of feature f are previous[previousStart[f]] .. previous[previousStart[f+1] - 1]
+    private final int[] previousStart;
+    private final int[] previous;
+
+    // The features depending on f are next[nextStart[f]] .. next[nextStart[f+1] - 1]
+    private final int[] nextStart;
+    private final int[] next;
+
+    private final int[][] requiredSkills;
+    private final long[][] requiredSkillMasks;     // null when nobody has some of the required skills
+    private final int[][] eligibleEmployees;
+    private final List<List<Employee>> eligibleEmployeeLists;
+    private final List<List<Feature>> doableFeatureLists;
+
+    private final double worstScore;
+    private final int nbPrecedences;
+
+    // Random keys of every feature id, employee id and position
+    private final long[] featureKeys;
+    private final long[] employeeKeys;
+    private final long[] positionKeys;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * @param skillIndex the index of the skills of the given employees
+     */
+    public CompiledProblem(List<Feature> features, SkillIndex skillIndex) {
+        int nbFeatures = features.size();
+        int nbEmployees = skillIndex.getNbEmployees();
+
+        this.skillIndex = skillIndex;
+        this.features = features.toArray(new Feature[nbFeatures]);
+        this.employees = new Employee[nbEmployees];
+
+        for (int f = 0; f < nbFeatures; ++f) {
+            featureIds.putIfAbsent(this.features[f].getName(), f);
+            featureIdentities.put(this.features[f], featureIds.get(this.features[f].getName()));
+        }
+        for (int e = 0; e < nbEmployees; ++e) {
+            this.employees[e] = skillIndex.getEmployee(e);
+            employeeIds.putIfAbsent(this.employees[e].getName(), e);
+            employeeIdentities.put(this.employees[e], employeeIds.get(this.employees[e].getName()));
+        }
+
+        durations = new double[nbFeatures];
+        priorityScores = new int[nbFeatures];
+        requiredSkills = new int[nbFeatures][];
+        requiredSkillMasks = new long[nbFeatures][];
+        previousStart = new int[nbFeatures + 1];
+
+        double score = 0.0;
+        for (int f = 0; f < nbFeatures; ++f) {
+            Feature feature = this.features[f];
+            durations[f] = feature.getDuration();
+            priorityScores[f] = feature.getPriority().getScore();
+            score += priorityScores[f];
+
+            requiredSkills[f] = skillIdsOf(feature.getRequiredSkills());
+            requiredSkillMasks[f] = skillIndex.maskOf(feature.getRequiredSkills());
+            previousStart[f + 1] = previousStart[f] + feature.getPreviousFeatures().size();
+        }
+        worstScore = score;
+        nbPrecedences = previousStart[nbFeatures];
+
+        previous = new int[nbPrecedences];
+        for (int f = 0; f < nbFeatures; ++f) {
+            int k = previousStart[f];
+            for (Feature dependency : this.features[f].getPreviousFeatures())
+                previous[k++] = featureIds.getOrDefault(dependency.getName(), UNKNOWN);
+        }
+
+        // The same edges, the other way around
+        nextStart = new int[nbFeatures + 1];
+        for (int p : previous)
+            if (p != UNKNOWN)
+                ++nextStart[p + 1];
+        for (int f = 0; f < nbFeatures; ++f)
+            nextStart[f + 1] += nextStart[f];
+        next = new int[nextStart[nbFeatures]];
+        int[] nextFill = new int[nbFeatures];
+        for (int f = 0; f < nbFeatures; ++f)
+            for (int k = previousStart[f]; k < previousStart[f + 1]; ++k)
+                if (previous[k] != UNKNOWN)
+                    next[nextStart[previous[k]] + nextFill[previous[k]]++] = f;
+
+        weekAvailabilities = new double[nbEmployees];
+        for (int e = 0; e < nbEmployees; ++e)
+            weekAvailabilities[e] = this.employees[e].getWeekAvailability();
+
+        // Eligibility tables, in both directions
+        eligibleEmployees = new int[nbFeatures][];
+        eligibleEmployeeLists = new ArrayList<>(nbFeatures);
+        int[] nbDoableFeatures = new int[nbEmployees];
+        for (int f = 0; f < nbFeatures; ++f) {
+            int[] eligible = skillIndex.employeesWith(requiredSkillMasks[f]);
+            eligibleEmployees[f] = eligible.length == 0 ? EMPTY : eligible;
+
+            List<Employee> eligibleList = new ArrayList<>(eligible.length);
+            for (int e : eligible) {
+                eligibleList.add(this.employees[e]);
+                ++nbDoableFeatures[e];
+            }
+            eligibleEmployeeLists.add(Collections.unmodifiableList(eligibleList));
+        }
+
+        List<List<Feature>> doable = new ArrayList<>(nbEmployees);
+        for (int e = 0; e < nbEmployees; ++e)
+            doable.add(new ArrayList<>(nbDoableFeatures[e]));
+        for (int f = 0; f < nbFeatures; ++f)
+            for (int e : eligibleEmployees[f])
+                doable.get(e).add(this.features[f]);
+        doableFeatureLists = new ArrayList<>(nbEmployees);
+        for (List<Feature> list : doable)
+            doableFeatureLists.add(Collections.unmodifiableList(list));
+
+        SplittableRandom keys = new SplittableRandom(KEYS_SEED);
+        featureKeys = keys.longs(nbFeatures).toArray();
+        employeeKeys = keys.longs(nbEmployees).toArray();
+        positionKeys = keys.longs(nbFeatures).toArray();
+    }
+
+    private int[] skillIdsOf(List<Skill> skillList) {
+        if (skillList.isEmpty()) return EMPTY;
+
+        int[] ids = new int[skillList.size()];
+        for (int i = 0; i < ids.length; ++i)
+            ids[i] = skillIndex.skillId(skillList.get(i));
+        return ids;
+    }
+
+
+    /* --- IDS --- */
+
+    public int getNbFeatures() { return features.length; }
+
+    public int getNbEmployees() { return employees.length; }
+
+    public int getNbSkills() { return skillIndex.getNbSkills(); }
+
+    public Feature getFeature(int f) { return features[f]; }
+
+    public Employee getEmployee(int e) { return employees[e]; }
+
+    public SkillIndex getSkillIndex() { return skillIndex; }
+
+    /**
+     * @return the id of the given feature, or {@link #UNKNOWN} if it is not part of the problem
+     */
+    public int featureId(Feature feature) {
+        Integer id = featureIdentities.get(feature);
+        return id != null ? id : featureIds.getOrDefault(feature.getName(), UNKNOWN);
+    }
+
+    /**
+     * @return the id of the given employee, or {@link #UNKNOWN} if it is not part of the problem
+     */
+    public int employeeId(Employee employee) {
+        Integer id = employeeIdentities.get(employee);
+        return id != null ? id : employeeIds.getOrDefault(employee.getName(), UNKNOWN);
+    }
+
+
+
+    /* --- FINGERPRINTS --- */
+
+    /**
+     * @return the Zobrist key of feature f done by employee e in the given position of a planning. The fingerprint of
+     * a planning is the XOR of the keys of all its positions, so it can be updated as the planning changes.
+     */
+    public long getKey(int f, int e, int position) {
+        // The SplitMix64 finalizer, so that the keys of different triples look independent
+        long key = featureKeys[f] ^ employeeKeys[e] ^ positionKeys[position];
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
+
+    /* --- FEATURES --- */
+
+    public double getDuration(int f) { return durations[f]; }
+
+    public int getPriorityScore(int f) { return priorityScores[f]; }
+
+    // The priority score of the solution that has no planned feature
+    public double getWorstScore() { return worstScore; }
+
+    // The total number of dependencies between features
+    public int getNbPrecedences() { return nbPrecedences; }
+
+    // The dependencies of f are getPrevious(k) for k in [getPreviousBegin(f), getPreviousEnd(f))
+    public int getPreviousBegin(int f) { return previousStart[f]; }
+
+    public int getPreviousEnd(int f) { return previousStart[f + 1]; }
+
+    public int getPrevious(int k) { return previous[k]; }
+
+    // The features depending on f are getNext(k) for k in [getNextBegin(f), getNextEnd(f)), once per dependency
+    public int getNextBegin(int f) { return nextStart[f]; }
+
+    public int getNextEnd(int f) { return nextStart[f + 1]; }
+
+    public int getNext(int k) { return next[k]; }
+
+    // Ids of the skills required by f, a skill nobody has is SkillIndex.UNKNOWN
+    public int[] getRequiredSkills(int f) { return requiredSkills[f]; }
+
+
+    /* --- EMPLOYEES --- */
+
+    public double getWeekAvailability(int e) { return weekAvailabilities[e]; }
+
+    /**
+     * @return true if employee e has all the skills required by feature f
+     */
+    public boolean canDo(int e, int f) {
+        return skillIndex.hasSkills(e, requiredSkillMasks[f]);
+    }
+
+    /**
+     * @return the number of skills required by feature f that employee e does not have
+     */
+    public int missingSkills(int f, int e) {
+        if (canDo(e, f))
+            return 0;
+
+        int missing = 0;
+        for (int s : requiredSkills[f])
+            if (!skillIndex.hasSkill(e, s))
+                ++missing;
+        return missing;
+    }
+
+    /**
+     * @return the ids of the employees having all the skills required by feature f
+     */
+    public int[] getEligibleEmployees(int f) { return eligibleEmployees[f]; }
+
+    /**
+     * @return the employees having all the skills required by feature f, as an unmodifiable list
+     */
+    public List<Employee> getEligibleEmployeeList(int f) { return eligibleEmployeeLists.get(f); }
+
+    /**
+     * @return the features employee e has all the required skills for, as an unmodifiable list
+     */
+    public List<Feature> getDoableFeatureList(int e) { return doableFeatureLists.get(e); }
+}
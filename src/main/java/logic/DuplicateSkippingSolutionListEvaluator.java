@@ -0,0 +1,101 @@
+package logic;
+
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.JMetalException;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates only one of the equal solutions of a population with another {@link SolutionListEvaluator}, the others
+ * copying its evaluation, so that no evaluation is spent on the clones the operators often make. With an
+ * {@link EvaluationCache}, the solutions equal to one evaluated in a previous population are not evaluated either.
+ * <p>
+ * Equal solutions are found by their genotype (see {@link PlanningSolution#getFingerprint()}), before they are
+ * evaluated.
+ */
+public class DuplicateSkippingSolutionListEvaluator implements SolutionListEvaluator<PlanningSolution> {
+
+    private static final long serialVersionUID = -5552951551763237602L; // Generated Id
+
+    private final SolutionListEvaluator<PlanningSolution> evaluator;
+    private final EvaluationCache cache;
+
+    // Number of evaluations skipped since the creation of the evaluator
+    private int nbSkipped = 0;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    public DuplicateSkippingSolutionListEvaluator(SolutionListEvaluator<PlanningSolution> evaluator) {
+        this(evaluator, null);
+    }
+
+    /**
+     * @param cache the evaluations of the previous populations, null to only skip the clones of the same population
+     */
+    public DuplicateSkippingSolutionListEvaluator(SolutionListEvaluator<PlanningSolution> evaluator,
+                                                  EvaluationCache cache) {
+        this.evaluator = evaluator;
+        this.cache = cache;
+    }
+
+
+    /* --- EVALUATION --- */
+
+    @Override
+    public List<PlanningSolution> evaluate(List<PlanningSolution> solutionList, Problem<PlanningSolution> problem)
+            throws JMetalException {
+        Map<Genotype, PlanningSolution> originals = new HashMap<>();
+        List<PlanningSolution> unique = new ArrayList<>(solutionList.size());
+        List<Genotype> uniqueGenotypes = new ArrayList<>(solutionList.size());
+        List<PlanningSolution> clones = new ArrayList<>();
+        List<PlanningSolution> clonedOriginals = new ArrayList<>();
+
+        for (PlanningSolution solution : solutionList) {
+            Genotype genotype = solution.getGenotype();
+            PlanningSolution original = originals.get(genotype);
+            if (original == null && cache != null)
+                original = cache.get(genotype);
+
+            if (original == null) {
+                originals.put(genotype, solution);
+                unique.add(solution);
+                uniqueGenotypes.add(genotype);
+            } else if (original != solution) {
+                clones.add(solution);
+                clonedOriginals.add(original);
+            }
+        }
+
+        evaluator.evaluate(unique, problem);
+
+        if (cache != null)
+            for (int i = 0; i < unique.size(); ++i)
+                cache.put(uniqueGenotypes.get(i), unique.get(i));
+        for (int i = 0; i < clones.size(); ++i)
+            clones.get(i).copyEvaluation(clonedOriginals.get(i));
+        nbSkipped += clones.size();
+
+        return solutionList;
+    }
+
+    @Override
+    public void shutdown() {
+        evaluator.shutdown();
+    }
+
+    public int getNbSkipped() {
+        return nbSkipped;
+    }
+
+    /**
+     * @return the cache of the evaluations of the previous populations, null if there is none
+     */
+    public EvaluationCache getCache() {
+        return cache;
+    }
+}
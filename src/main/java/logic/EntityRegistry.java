@@ -0,0 +1,122 @@
+package logic;
+
+import entities.Employee;
+import entities.Feature;
+import entities.PlannedFeature;
+import entities.Skill;
+import io.swagger.model.ApiPlanningSolution;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the features, employees and skills of a problem: every reference to an entity, wherever it appears (the
+ * dependencies of a feature, the skills of an employee, the jobs of a previous plan...), is replaced by one canonical
+ * instance, the first one with its name.
+ * <p>
+ * The JSON of a problem repeats the entities it references (a dependency is a partial copy of the feature), so Gson
+ * creates several instances of the same entity. Once they are interned, entities can be looked up by identity.
+ * <p>
+ * Interning modifies the registered entities: the skills of the employees, and the required skills and dependencies
+ * of the features, are replaced by new lists of canonical instances, and so are the features and employees of the
+ * jobs of an interned plan.
+ */
+public class EntityRegistry {
+
+    private final Map<String, Feature> features = new HashMap<>();
+    private final Map<String, Employee> employees = new HashMap<>();
+    private final Map<String, Skill> skills = new HashMap<>();
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * Registers the given features and employees, in this order of precedence, and interns all the references they
+     * hold
+     */
+    public EntityRegistry(List<Feature> featureList, List<Employee> employeeList) {
+        if (featureList != null)
+            for (Feature feature : featureList)
+                intern(feature);
+        if (employeeList != null) {
+            for (Employee employee : employeeList)
+                intern(employee);
+            for (Employee employee : employeeList)
+                if (employee.getSkills() != null)
+                    employee.setSkills(internSkills(employee.getSkills()));
+        }
+        if (featureList != null) {
+            for (Feature feature : featureList) {
+                if (feature.getRequiredSkills() != null)
+                    feature.setRequiredSkills(internSkills(feature.getRequiredSkills()));
+                if (feature.getPreviousFeatures() != null)
+                    feature.setPreviousFeatures(internFeatures(feature.getPreviousFeatures()));
+            }
+        }
+    }
+
+
+    /* --- INTERNING --- */
+
+    /**
+     * @return the canonical instance of the given feature, registering it if it is the first one with its name
+     */
+    public Feature intern(Feature feature) {
+        return feature == null ? null : register(features, feature, feature.getName());
+    }
+
+    /**
+     * @return the canonical instance of the given employee, registering it if it is the first one with its name
+     */
+    public Employee intern(Employee employee) {
+        return employee == null ? null : register(employees, employee, employee.getName());
+    }
+
+    /**
+     * @return the canonical instance of the given skill, registering it if it is the first one with its name
+     */
+    public Skill intern(Skill skill) {
+        return skill == null ? null : register(skills, skill, skill.getName());
+    }
+
+    /**
+     * Replaces the features and employees of the jobs of the given plan by their canonical instances
+     */
+    public void intern(ApiPlanningSolution plan) {
+        if (plan == null || plan.getJobs() == null)
+            return;
+
+        for (PlannedFeature job : plan.getJobs()) {
+            Feature feature = intern(job.getFeature());
+            if (feature != job.getFeature())
+                job.setFeature(feature);
+            Employee employee = intern(job.getEmployee());
+            if (employee != job.getEmployee())
+                job.setEmployee(employee);
+        }
+    }
+
+
+    /* --- PRIVATE --- */
+
+    private static <T> T register(Map<String, T> byName, T entity, String name) {
+        T canonical = byName.putIfAbsent(name, entity);
+        return canonical == null ? entity : canonical;
+    }
+
+    private List<Skill> internSkills(List<Skill> list) {
+        List<Skill> interned = new ArrayList<>(list.size());
+        for (Skill skill : list)
+            interned.add(intern(skill));
+        return interned;
+    }
+
+    private List<Feature> internFeatures(List<Feature> list) {
+        List<Feature> interned = new ArrayList<>(list.size());
+        for (Feature feature : list)
+            interned.add(intern(feature));
+        return interned;
+    }
+}
@@ -0,0 +1,71 @@
+package logic;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The evaluations of the last plannings evaluated during a solve, so that a planning the operators make again is not
+ * evaluated again. The least recently used evaluation is forgotten once the cache is full.
+ * <p>
+ * Every evaluation is kept as an evaluated copy of the solution, sharing its evaluation state, so a hit gives the
+ * objectives, the constraints and the quality as well as the schedules.
+ */
+public class EvaluationCache {
+
+    private final int capacity;
+    private final Map<Genotype, PlanningSolution> evaluations;
+
+    private long hits = 0;
+    private long misses = 0;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    public EvaluationCache(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity of the cache must be positive: " + capacity);
+
+        this.capacity = capacity;
+        evaluations = new LinkedHashMap<Genotype, PlanningSolution>(16, 0.75f, true) {
+            private static final long serialVersionUID = -9047175485309925678L; // Generated Id
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Genotype, PlanningSolution> eldest) {
+                return size() > EvaluationCache.this.capacity;
+            }
+        };
+    }
+
+
+    /* --- CACHE --- */
+
+    /**
+     * @return the evaluated solution of the given genotype, null if it is not in the cache
+     */
+    synchronized PlanningSolution get(Genotype genotype) {
+        PlanningSolution evaluated = evaluations.get(genotype);
+        if (evaluated == null)
+            ++misses;
+        else
+            ++hits;
+        return evaluated;
+    }
+
+    /**
+     * Remembers the evaluation of a solution that had the given genotype before it was evaluated
+     */
+    synchronized void put(Genotype genotype, PlanningSolution evaluated) {
+        evaluations.put(genotype, new PlanningSolution(evaluated));
+    }
+
+
+    /* --- GETTERS --- */
+
+    public int getCapacity() { return capacity; }
+
+    public synchronized int size() { return evaluations.size(); }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+}
@@ -0,0 +1,308 @@
+package logic;
+
+import entities.Employee;
+import entities.PlannedFeature;
+import entities.Schedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link NextReleaseProblem#evaluate(PlanningSolution)} and
+ * {@link NextReleaseProblem#evaluateConstraints(PlanningSolution)} computed for every position of the planned
+ * features of a solution, so that the next evaluation can start from the first position that changed.
+ * <p>
+ * The hours of a planned feature only depend on the features planned before it for the same employee, so the
+ * schedules of the employees are rolled back to that position and only the following features are scheduled again.
+ * The constraints of a position are kept as long as the position and all of its dependencies are before the first
+ * change.
+ * <p>
+ * The planned features of the state are the phenotype of the solution: they are made when the features are scheduled
+ * and hold their hours. A state can be shared by the copies of a solution as long as it is not modified, see
+ * {@link #share()}.
+ */
+class EvaluationState {
+
+    /**
+     * Horizon of a feature with a dependency that is not planned
+     */
+    static final int UNPLANNED_DEPENDENCY = Integer.MAX_VALUE;
+
+    private static final int UNPLANNED = -1;
+
+    private final CompiledProblem compiled;
+    private final int nbWeeks;
+    private final double nbHoursByWeek;
+
+    private final Schedule[] schedules;     // By employee id, null when the employee has nothing planned
+    private boolean shared;                 // True once several solutions hold this state
+
+    // By feature id, UNPLANNED and NaN when the feature is not planned
+    private final int[] positions;
+    private final double[] beginHours;
+    private final double[] endHours;
+
+    // By position
+    private int size;
+    private PlannedFeature[] jobs;
+    private int[] featureIds;
+    private int[] employeeIds;
+    private double[] maxEndHours;           // Maximum end hour of the planned features up to the position
+
+    // Constraints by position, valid for the first nbEvaluatedConstraints positions
+    private int nbEvaluatedConstraints;
+    private int[] horizons;                 // Last position of the dependencies, or -1 if they are not checked
+    private int[] precedencesViolated;
+    private int[] missingSkills;
+    private boolean[] frozenJobsKept;
+    private boolean[] employeesChanged;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    EvaluationState(CompiledProblem compiled, int nbWeeks, double nbHoursByWeek) {
+        this.compiled = compiled;
+        this.nbWeeks = nbWeeks;
+        this.nbHoursByWeek = nbHoursByWeek;
+
+        schedules = new Schedule[compiled.getNbEmployees()];
+        positions = new int[compiled.getNbFeatures()];
+        beginHours = new double[compiled.getNbFeatures()];
+        endHours = new double[compiled.getNbFeatures()];
+        Arrays.fill(positions, UNPLANNED);
+        Arrays.fill(beginHours, Double.NaN);
+        Arrays.fill(endHours, Double.NaN);
+
+        allocate(8);
+    }
+
+    /**
+     * Copies the first nbJobs positions of origin, with copies of its planned features
+     */
+    EvaluationState(EvaluationState origin, int nbJobs) {
+        this(origin.compiled, origin.nbWeeks, origin.nbHoursByWeek);
+
+        allocate(Math.max(8, origin.jobs.length));
+
+        Map<PlannedFeature, PlannedFeature> counterparts = new IdentityHashMap<>();
+        int[] nbEmployeeJobs = new int[schedules.length];
+        for (int i = 0; i < nbJobs; ++i) {
+            PlannedFeature originJob = origin.jobs[i];
+            PlannedFeature job = new PlannedFeature(originJob);
+            job.setFrozen(originJob.isFrozen());
+            counterparts.put(originJob, job);
+
+            jobs[i] = job;
+            featureIds[i] = origin.featureIds[i];
+            employeeIds[i] = origin.employeeIds[i];
+            maxEndHours[i] = origin.maxEndHours[i];
+            positions[featureIds[i]] = i;
+            beginHours[featureIds[i]] = job.getBeginHour();
+            endHours[featureIds[i]] = job.getEndHour();
+            ++nbEmployeeJobs[employeeIds[i]];
+        }
+        size = nbJobs;
+
+        for (int e = 0; e < schedules.length; ++e)
+            if (nbEmployeeJobs[e] > 0)
+                schedules[e] = new Schedule(origin.schedules[e], nbEmployeeJobs[e], counterparts);
+
+        nbEvaluatedConstraints = Math.min(nbJobs, origin.nbEvaluatedConstraints);
+        System.arraycopy(origin.horizons, 0, horizons, 0, nbEvaluatedConstraints);
+        System.arraycopy(origin.precedencesViolated, 0, precedencesViolated, 0, nbEvaluatedConstraints);
+        System.arraycopy(origin.missingSkills, 0, missingSkills, 0, nbEvaluatedConstraints);
+        System.arraycopy(origin.frozenJobsKept, 0, frozenJobsKept, 0, nbEvaluatedConstraints);
+        System.arraycopy(origin.employeesChanged, 0, employeesChanged, 0, nbEvaluatedConstraints);
+    }
+
+
+    /* --- EVALUATION --- */
+
+    int size() { return size; }
+
+    // True if this state was computed for the given problem
+    boolean isOf(CompiledProblem problem) { return compiled == problem; }
+
+    /**
+     * Marks this state as held by several solutions, which must then copy it before modifying it
+     */
+    void share() { shared = true; }
+
+    boolean isShared() { return shared; }
+
+    /**
+     * @param limit the positions after it are not compared
+     * @return the number of leading positions where the given solution does the same features with the same
+     * employees as this state
+     */
+    int commonWork(PlanningSolution solution, int limit) {
+        int n = Math.min(Math.min(limit, size), solution.size());
+        int i = 0;
+        while (i < n && solution.getFeatureId(i) == featureIds[i] && solution.getEmployeeId(i) == employeeIds[i])
+            ++i;
+        return i;
+    }
+
+    /**
+     * Forgets everything from the given position on, rolling back the schedules of the employees. The schedules left
+     * empty are dropped, as no feature planned for them was tried.
+     */
+    void truncate(int position) {
+        position = Math.min(position, size);
+
+        int[] nbEmployeeJobs = new int[schedules.length];
+        for (int i = 0; i < position; ++i)
+            ++nbEmployeeJobs[employeeIds[i]];
+
+        for (int i = position; i < size; ++i) {
+            positions[featureIds[i]] = UNPLANNED;
+            beginHours[featureIds[i]] = Double.NaN;
+            endHours[featureIds[i]] = Double.NaN;
+            jobs[i] = null;
+        }
+
+        for (int e = 0; e < schedules.length; ++e) {
+            if (schedules[e] == null) continue;
+
+            if (nbEmployeeJobs[e] == 0)
+                schedules[e] = null;
+            else
+                schedules[e].rollback(nbEmployeeJobs[e]);
+        }
+
+        size = position;
+        nbEvaluatedConstraints = Math.min(nbEvaluatedConstraints, position);
+    }
+
+    /**
+     * Schedules the given planned feature, of feature f done by employee e, at the next position
+     * @return false if the employee has not enough hours left for it, and then nothing changes
+     */
+    boolean schedule(PlannedFeature pf, int f, int e) {
+        if (!getSchedule(e).scheduleFeature(pf))
+            return false;
+
+        append(pf, f, e);
+        return true;
+    }
+
+    /**
+     * Schedules the given planned feature, of feature f done by employee e, at the next position even if it ends
+     * after the release (see {@link Schedule#forceSchedule(PlannedFeature)})
+     */
+    void forceSchedule(PlannedFeature pf, int f, int e) {
+        getSchedule(e).forceSchedule(pf);
+        append(pf, f, e);
+    }
+
+    // The end hour of the solution
+    double getEndHour() {
+        return size == 0 ? 0.0 : maxEndHours[size - 1];
+    }
+
+    // The begin hour of feature f, NaN if it is not planned
+    double getBeginHour(int f) { return beginHours[f]; }
+
+    // The end hour of feature f, NaN if it is not planned
+    double getEndHour(int f) { return endHours[f]; }
+
+    // The planned features of all the positions
+    List<PlannedFeature> getJobs() {
+        return new ArrayList<>(Arrays.asList(jobs).subList(0, size));
+    }
+
+    Map<Employee, Schedule> getEmployeesPlanning() {
+        Map<Employee, Schedule> employeesPlanning = new HashMap<>();
+        for (Schedule schedule : schedules)
+            if (schedule != null)
+                employeesPlanning.put(schedule.getEmployee(), schedule);
+        return employeesPlanning;
+    }
+
+
+    /* --- CONSTRAINTS --- */
+
+    int getNbEvaluatedConstraints() { return nbEvaluatedConstraints; }
+
+    /**
+     * @return the position of feature f, or -1 if it is not planned
+     */
+    int positionOf(int f) { return positions[f]; }
+
+    PlannedFeature getJob(int position) { return jobs[position]; }
+
+    int getFeatureId(int position) { return featureIds[position]; }
+
+    int getEmployeeId(int position) { return employeeIds[position]; }
+
+    /**
+     * @return true if the constraints of the given position are still the ones saved by
+     * {@link #setConstraints(int, int, int, int, boolean, boolean)}
+     */
+    boolean hasConstraints(int position) {
+        return position < nbEvaluatedConstraints && horizons[position] < nbEvaluatedConstraints;
+    }
+
+    /**
+     * @param horizon the last position of the dependencies of the feature, -1 if they were not checked or
+     * {@link #UNPLANNED_DEPENDENCY} if some of them is not planned
+     */
+    void setConstraints(int position, int horizon, int precedences, int skills, boolean frozenJobKept,
+                        boolean employeeChanged) {
+        horizons[position] = horizon;
+        precedencesViolated[position] = precedences;
+        missingSkills[position] = skills;
+        frozenJobsKept[position] = frozenJobKept;
+        employeesChanged[position] = employeeChanged;
+    }
+
+    // Marks the constraints of all the positions as up to date
+    void constraintsEvaluated() { nbEvaluatedConstraints = size; }
+
+    int getPrecedencesViolated(int position) { return precedencesViolated[position]; }
+
+    int getMissingSkills(int position) { return missingSkills[position]; }
+
+    boolean isFrozenJobKept(int position) { return frozenJobsKept[position]; }
+
+    boolean isEmployeeChanged(int position) { return employeesChanged[position]; }
+
+
+    /* --- PRIVATE --- */
+
+    private Schedule getSchedule(int e) {
+        if (schedules[e] == null)
+            schedules[e] = new Schedule(compiled.getEmployee(e), nbWeeks, nbHoursByWeek);
+        return schedules[e];
+    }
+
+    private void append(PlannedFeature pf, int f, int e) {
+        if (size == jobs.length)
+            allocate(2 * size);
+
+        jobs[size] = pf;
+        featureIds[size] = f;
+        employeeIds[size] = e;
+        maxEndHours[size] = size == 0 ? pf.getEndHour() : Math.max(maxEndHours[size - 1], pf.getEndHour());
+        positions[f] = size;
+        beginHours[f] = pf.getBeginHour();
+        endHours[f] = pf.getEndHour();
+        ++size;
+    }
+
+    private void allocate(int capacity) {
+        jobs = jobs == null ? new PlannedFeature[capacity] : Arrays.copyOf(jobs, capacity);
+        featureIds = featureIds == null ? new int[capacity] : Arrays.copyOf(featureIds, capacity);
+        employeeIds = employeeIds == null ? new int[capacity] : Arrays.copyOf(employeeIds, capacity);
+        maxEndHours = maxEndHours == null ? new double[capacity] : Arrays.copyOf(maxEndHours, capacity);
+        horizons = horizons == null ? new int[capacity] : Arrays.copyOf(horizons, capacity);
+        precedencesViolated = precedencesViolated == null ? new int[capacity] : Arrays.copyOf(precedencesViolated, capacity);
+        missingSkills = missingSkills == null ? new int[capacity] : Arrays.copyOf(missingSkills, capacity);
+        frozenJobsKept = frozenJobsKept == null ? new boolean[capacity] : Arrays.copyOf(frozenJobsKept, capacity);
+        employeesChanged = employeesChanged == null ? new boolean[capacity] : Arrays.copyOf(employeesChanged, capacity);
+    }
+}
@@ -0,0 +1,101 @@
+package logic;
+
+import org.uma.jmetal.problem.ConstrainedProblem;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.JMetalException;
+import org.uma.jmetal.util.JMetalLogger;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+
+/**
+ * Evaluates the solutions of a population in parallel on its own {@link ForkJoinPool}, evaluating the constraints too
+ * as {@link org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator} does.
+ * <p>
+ * The problem must support evaluating different solutions concurrently, and a solution must not appear twice in the
+ * list. The pool is released by {@link #shutdown()}.
+ */
+public class ForkJoinSolutionListEvaluator<S extends Solution<?>> implements SolutionListEvaluator<S> {
+
+    private static final long serialVersionUID = -2559247482256395159L; // Generated Id
+
+    // Number of solutions below which a batch is evaluated by a single thread
+    private static final int BATCH_SIZE = 4;
+
+    private final ForkJoinPool pool;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    public ForkJoinSolutionListEvaluator(int numberOfThreads) {
+        if (numberOfThreads < 1)
+            throw new JMetalException("The number of threads must be positive: " + numberOfThreads);
+
+        pool = new ForkJoinPool(numberOfThreads);
+    }
+
+
+    /* --- EVALUATION --- */
+
+    @Override
+    public List<S> evaluate(List<S> solutionList, Problem<S> problem) throws JMetalException {
+        try {
+            pool.invoke(new Batch(solutionList, problem, 0, solutionList.size()));
+        } catch (RuntimeException e) {
+            JMetalLogger.logger.log(Level.SEVERE, "Error evaluating solution", e);
+            throw new JMetalException("Error in ForkJoinSolutionListEvaluator.evaluate()");
+        }
+        return solutionList;
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public int getNumberOfThreads() {
+        return pool.getParallelism();
+    }
+
+
+    /* --- PRIVATE --- */
+
+    // Evaluates the solutions from begin to end, splitting them in halves until they are few enough
+    private class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 8040767758018477797L; // Generated Id
+        private final List<S> solutionList;
+        private final Problem<S> problem;
+        private final int begin;
+        private final int end;
+
+        Batch(List<S> solutionList, Problem<S> problem, int begin, int end) {
+            this.solutionList = solutionList;
+            this.problem = problem;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - begin <= BATCH_SIZE) {
+                for (int i = begin; i < end; ++i)
+                    evaluate(solutionList.get(i));
+            } else {
+                int middle = (begin + end) >>> 1;
+                invokeAll(new Batch(solutionList, problem, begin, middle),
+                        new Batch(solutionList, problem, middle, end));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void evaluate(S solution) {
+            problem.evaluate(solution);
+            if (problem instanceof ConstrainedProblem)
+                ((ConstrainedProblem<S>) problem).evaluateConstraints(solution);
+        }
+    }
+}
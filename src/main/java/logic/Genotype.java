@@ -0,0 +1,42 @@
+package logic;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the planned features of a {@link PlanningSolution} and of the employees doing them, in
+ * planning order, to look up solutions by their planning even after they change.
+ */
+final class Genotype {
+
+    private final int[] order;
+    private final int[] assignment;
+    private final long fingerprint;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    Genotype(int[] order, int[] assignment, long fingerprint) {
+        this.order = order;
+        this.assignment = assignment;
+        this.fingerprint = fingerprint;
+    }
+
+
+    /* --- OBJECT --- */
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Genotype genotype = (Genotype) o;
+        return fingerprint == genotype.fingerprint &&
+                Arrays.equals(order, genotype.order) &&
+                Arrays.equals(assignment, genotype.assignment);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint);
+    }
+}
@@ -12,10 +12,7 @@ import org.uma.jmetal.problem.impl.AbstractGenericProblem;
 import org.uma.jmetal.util.solutionattribute.impl.NumberOfViolatedConstraints;
 import org.uma.jmetal.util.solutionattribute.impl.OverallConstraintViolation;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 
 // TODO: The Frozen Features functionality needs to be remade to adapt it to the Schedule class
@@ -39,9 +36,14 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 	private List<Feature> features;
 	private List<Employee> employees;
 	private ApiPlanningSolution previousSolution;
+	private PreviousPlan previousPlan;	// The previous solution indexed by feature id, null if there isn't any
 	private int nbWeeks; 			// The number of weeks of the iteration
 	private double nbHoursByWeek; 	// The number of worked hours by week
 	private AlgorithmParameters algorithmParameters;
+	private EntityRegistry registry;	// The canonical instances of the entities of the problem
+	private SkillIndex skillIndex;		// The skills of the employees as bitsets
+	private CompiledProblem compiled;	// Index-based view of the features and employees
+	private transient RandomSource random;	// The random numbers of the current solve
 
 	// SOLUTION
 	private NumberOfViolatedConstraints<PlanningSolution> numberOfViolatedConstraints;
@@ -57,12 +59,19 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 	}
 	public void setPreviousSolution(ApiPlanningSolution previousSolution) {
 		this.previousSolution = previousSolution;
+		if (registry != null)
+			registry.intern(previousSolution);
+		indexPreviousSolution();
+	}
+	public PreviousPlan getPreviousPlan() {
+		return previousPlan;
 	}
 	public List<Feature> getFeatures() {
 		return features;
 	}
 	public void setFeatures(List<Feature> features) {
 		this.features = features;
+		compile();
 	}
 	public int getNbWeeks() {
 		return nbWeeks;
@@ -74,11 +83,25 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 		return numberOfViolatedConstraints;
 	}
 	public List<Employee> getSkilledEmployees(List<Skill> reqSkills) {
-		ArrayList<Employee> skilledEmployees = new ArrayList<>();
-		for (Employee employee : employees)
-			if(employee.getSkills().containsAll(reqSkills))
-				skilledEmployees.add(employee);
-		return skilledEmployees;
+		return getSkillIndex().employeesWith(reqSkills);
+	}
+	// Cached, the returned list must not be modified
+	public List<Employee> getSkilledEmployees(Feature feature) {
+		int f = compiled.featureId(feature);
+		return f == CompiledProblem.UNKNOWN ?
+				getSkilledEmployees(feature.getRequiredSkills()) : compiled.getEligibleEmployeeList(f);
+	}
+	// Cached, the returned list must not be modified
+	public List<Feature> getDoableFeatures(Employee employee) {
+		int e = compiled.employeeId(employee);
+		if (e != CompiledProblem.UNKNOWN)
+			return compiled.getDoableFeatureList(e);
+
+		List<Feature> doableFeatures = new ArrayList<>();
+		for (Feature feature : features)
+			if (employee.getSkills().containsAll(feature.getRequiredSkills()))
+				doableFeatures.add(feature);
+		return doableFeatures;
 	}
 	public List<Employee> getEmployees() {
 		return employees;
@@ -86,10 +109,27 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 	public double getWorstScore() {
 		return worstScore;
 	}
+	public CompiledProblem getCompiledProblem() {
+		return compiled;
+	}
+
+	public EntityRegistry getRegistry() {
+		return registry;
+	}
 
 	public AlgorithmParameters getAlgorithmParameters() { return algorithmParameters; }
 	public void setAlgorithmParameters(AlgorithmParameters algorithmParameters) { this.algorithmParameters = algorithmParameters; }
 
+	// Seeded from the algorithm parameters unless set by the solver
+	public RandomSource getRandom() {
+		if (random == null) {
+			Long seed = algorithmParameters == null ? null : algorithmParameters.getSeed();
+			random = seed == null ? new RandomSource() : new RandomSource(seed);
+		}
+		return random;
+	}
+	public void setRandom(RandomSource random) { this.random = random; }
+
 	// Constructor (empty)
 	public NextReleaseProblem() {
 		setName("Next Release Problem");
@@ -110,13 +150,21 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 		this.nbWeeks = nbWeeks;
 		this.nbHoursByWeek = nbHoursPerWeek;
 
+		// Every reference to a feature, an employee or a skill is one instance from now on
+		registry = new EntityRegistry(features, employees);
+
 		// TODO: If a feature is not included because 1. lack of skills or 2. the dependee is not included; this information should be noted somewhere and send back to the controller once the plan is produced).
 		// checks that features can be satisfied by the skills of the resources and the dependencies are included
+		Set<String> featureNames = new HashSet<>();
 		for (Feature feature : features)
-			if (getSkilledEmployees(feature.getRequiredSkills()).size() > 0) // 1.
-				if (features.containsAll(feature.getPreviousFeatures())) // 2.
+			featureNames.add(feature.getName());
+		for (Feature feature : features)
+			if (!getSkilledEmployees(feature.getRequiredSkills()).isEmpty()) // 1.
+				if (containsAll(featureNames, feature.getPreviousFeatures())) // 2.
 					this.features.add(feature);
 
+		compile();
+
 		worstEndDate = nbWeeks * nbHoursByWeek;
 
 		initializeWorstScore();
@@ -127,7 +175,7 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 	public NextReleaseProblem(List<Feature> features, List<Employee> employees,
 							  int nbWeeks, double nbHoursPerWeek, ApiPlanningSolution previousSolution) {
 		this(features, employees, nbWeeks, nbHoursPerWeek);
-		this.previousSolution = previousSolution;
+		setPreviousSolution(previousSolution);
 	}
 
 	// Copy constructor
@@ -141,11 +189,32 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 
 	/* ------------ */
 
+	private static boolean containsAll(Set<String> featureNames, List<Feature> features) {
+		for (Feature feature : features)
+			if (!featureNames.contains(feature.getName()))
+				return false;
+		return true;
+	}
+
+	private SkillIndex getSkillIndex() {
+		if (skillIndex == null)
+			skillIndex = new SkillIndex(employees);
+		return skillIndex;
+	}
+
+	// Builds the index-based view of the problem used by the solver
+	private void compile() {
+		compiled = new CompiledProblem(features, getSkillIndex());
+		indexPreviousSolution();
+	}
+
+	private void indexPreviousSolution() {
+		previousPlan = previousSolution == null || compiled == null ? null : new PreviousPlan(previousSolution, compiled);
+	}
+
 	// Initializes the worst score
 	private void initializeWorstScore() {
-		worstScore = 0.0;
-		for (Feature feature : features)
-			worstScore += feature.getPriority().getScore();
+		worstScore = compiled.getWorstScore();
 	}
 
 	// Initializes the number of constraints for the problem
@@ -153,8 +222,7 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 		int numberOfConstraints = 0;
 
 		// 1 for each dependency
-		for (Feature feature : features)
-			numberOfConstraints += feature.getPreviousFeatures().size();
+		numberOfConstraints += compiled.getNbPrecedences();
 
 		precedenceConstraintOverall = 1.0 / numberOfConstraints;
 
@@ -171,90 +239,93 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 
 	@Override
 	public void evaluate(PlanningSolution solution) {
-		Map<Employee, Schedule> planning = new HashMap<>();
-		List<PlannedFeature> plannedFeatures = solution.getPlannedFeatures();
-
-		solution.resetHours();
-
-        for (PlannedFeature currentPlannedFeature : plannedFeatures) {
-            computeHours(solution, currentPlannedFeature);
-
-			Employee employee = currentPlannedFeature.getEmployee();
-			Schedule employeeSchedule = planning.getOrDefault(employee, new Schedule(employee, nbWeeks, nbHoursByWeek));
-
-			if (!employeeSchedule.contains(currentPlannedFeature))
-                if (!employeeSchedule.scheduleFeature(currentPlannedFeature))
-                    solution.unschedule(currentPlannedFeature);
-
-			planning.put(employee, employeeSchedule);
-        }
-
-        double endHour = 0.0;
-        for (Schedule schedule : planning.values())
-            for (PlannedFeature pf : schedule.getPlannedFeatures())
-                endHour = Math.max(endHour, pf.getEndHour());
+		// Only the planned features from the first one that changed since the last evaluation are scheduled again
+		EvaluationState state = solution.getEvaluationState();
+		if (state == null || !state.isOf(compiled)) {
+			state = new EvaluationState(compiled, nbWeeks, nbHoursByWeek);
+			solution.setEvaluationState(state);
+		}
+		int firstModified = state.commonWork(solution, solution.getFirstModifiedPosition());
+		state = solution.ownEvaluationState(firstModified);
+		state.truncate(firstModified);
+
+		int i = firstModified;
+		while (i < solution.size()) {
+			int f = solution.getFeatureId(i);
+			int e = solution.getEmployeeId(i);
+			PlannedFeature currentPlannedFeature = solution.newJob(i);
+			computeHours(state, currentPlannedFeature, f);
+
+			if (!state.schedule(currentPlannedFeature, f, e)) {
+				solution.unschedule(i);
+				continue;
+			}
+			++i;
+		}
+		solution.evaluated();
 
-		solution.setEmployeesPlanning(planning);
-		solution.setEndDate(endHour);
+		solution.setEmployeesPlanning(state.getEmployeesPlanning());
+		solution.setEndDate(state.getEndHour());
 
 
 		/* Objectives and quality evaluation */
 		SolutionEvaluator evaluator = SolutionEvaluator.getInstance();
 
 		solution.setObjective(INDEX_PRIORITY_OBJECTIVE, evaluator.priorityObjective(solution));
-        solution.setObjective(INDEX_END_DATE_OBJECTIVE, evaluator.endDateObjective(solution));
-        //solution.setObjective(INDEX_DISTRIBUTION_OBJECTIVE, evaluator.distributionObjective(solution));
+		solution.setObjective(INDEX_END_DATE_OBJECTIVE, evaluator.endDateObjective(solution));
+		//solution.setObjective(INDEX_DISTRIBUTION_OBJECTIVE, evaluator.distributionObjective(solution));
 
 		solutionQuality.setAttribute(solution, evaluator.quality(solution));
 	}
 
-	private void computeHours(PlanningSolution solution) {
-        for (PlannedFeature pf : solution.getPlannedFeatures())
-            computeHours(solution, pf);
-    }
-
-	private void computeHours(PlanningSolution solution, PlannedFeature pf) {
+	// Sets the hours of planned feature pf, of feature f, considering the end hour of its dependencies
+	private void computeHours(EvaluationState state, PlannedFeature pf, int f) {
 		double newBeginHour = pf.getBeginHour();
-		Feature feature = pf.getFeature();
-		// newBeginHour = maximum end hour of all previous features
-		for (Feature previousFeature : feature.getPreviousFeatures()) {
-			PlannedFeature previousPlannedFeature = solution.findPlannedFeature(previousFeature);
-			if (previousPlannedFeature != null) {
-				newBeginHour = Math.max(newBeginHour, previousPlannedFeature.getEndHour());
+		// newBeginHour = maximum end hour of all previous features already scheduled
+		for (int k = compiled.getPreviousBegin(f); k < compiled.getPreviousEnd(f); ++k) {
+			int previousFeature = compiled.getPrevious(k);
+			if (previousFeature == CompiledProblem.UNKNOWN) continue;
+
+			double previousEndHour = state.getEndHour(previousFeature);
+			if (!Double.isNaN(previousEndHour)) {
+				newBeginHour = Math.max(newBeginHour, previousEndHour);
 			}
 		}
 
 		pf.setBeginHour(newBeginHour);
-		pf.setEndHour(newBeginHour + feature.getDuration());
+		pf.setEndHour(newBeginHour + compiled.getDuration(f));
 	}
 
 	@Override
 	public void evaluateConstraints(PlanningSolution solution) {
-		int precedencesViolated = 0;
-		int violatedConstraints;
-		double overall;
+		EvaluationState state = solution.getEvaluationState();
+		if (state == null || !state.isOf(compiled) || solution.getFirstModifiedPosition() < solution.size() ||
+				state.size() != solution.size()) {
+			evaluate(solution);
+		}
+		state = solution.getEvaluationState();
+		if (state.getNbEvaluatedConstraints() < state.size())
+			state = solution.ownEvaluationState(state.size());
 
-		// Precedence constraint
-		for (PlannedFeature currentFeature : solution.getPlannedFeatures()) {
-
-			// Ignore precedence constraint if the planned feature is frozen in the previous plan
-			if (	previousSolution != null &&
-					previousSolution.findJobOf(currentFeature.getFeature()) != null &&
-					previousSolution.getJobs().contains(currentFeature))
-			{
-			    continue;
-            }
-
-			for (Feature previousFeature : currentFeature.getFeature().getPreviousFeatures()) {
-				PlannedFeature previousPlannedFeature = solution.findPlannedFeature(previousFeature);
-				if (previousPlannedFeature == null || previousPlannedFeature.getEndHour() > currentFeature.getBeginHour()) {
-				    precedencesViolated++;
-                }
-			}
+		// Only the positions that changed, or whose dependencies did, are checked again
+		int precedencesViolated = 0;
+		int missingSkills = 0;
+		int frozenJobsKept = 0;
+		int employeesChanged = 0;
+		for (int i = 0; i < state.size(); ++i) {
+			if (!state.hasConstraints(i))
+				evaluateConstraints(state, i);
+
+			precedencesViolated += state.getPrecedencesViolated(i);
+			missingSkills += state.getMissingSkills(i);
+			if (state.isFrozenJobKept(i)) ++frozenJobsKept;
+			if (state.isEmployeeChanged(i)) ++employeesChanged;
 		}
+		state.constraintsEvaluated();
 
-		overall = -1.0 * precedencesViolated * precedenceConstraintOverall;
-		violatedConstraints = precedencesViolated;
+		// Precedence constraint
+		double overall = -1.0 * precedencesViolated * precedenceConstraintOverall;
+		int violatedConstraints = precedencesViolated;
 
 		// Check if the solution end date exceeds the deadline
 		if (solution.getEndDate() > nbWeeks * nbHoursByWeek) {
@@ -263,45 +334,17 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 		}
 
 		// Check if the employees assigned to the planned features have the required skills
-		for (PlannedFeature plannedFeature : solution.getPlannedFeatures()) {
-			List<Skill> featureSkills = plannedFeature.getFeature().getRequiredSkills();
-			List<Skill> employeeSkills = plannedFeature.getEmployee().getSkills();
-			for (Skill featureSkill : featureSkills) {
-				boolean hasSkill = false;
-				for (Skill employeeSkill : employeeSkills) {
-					if (featureSkill.equals(employeeSkill)) {
-						hasSkill = true;
-						break;
-					}
-				}
-				if (!hasSkill) {
-					violatedConstraints++;
-					overall -= 1.0;
-				}
-			}
-		}
-
-		if (previousSolution != null) {
-			Map<Feature, Employee> previousFeatures = new HashMap<>();
+		violatedConstraints += missingSkills;
+		overall -= missingSkills;
 
+		if (previousPlan != null) {
 			// Frozen jobs constraint
-			for (PlannedFeature pf : previousSolution.getJobs()) {
-				previousFeatures.put(pf.getFeature(), pf.getEmployee());
-
-				if (pf.isFrozen() && !solution.getPlannedFeatures().contains(pf)) {
-					violatedConstraints++;
-					overall -= 1.0;
-				}
-			}
+			int frozenJobs = previousPlan.getNbFrozenJobs();
+			violatedConstraints += frozenJobs - frozenJobsKept;
+			overall -= frozenJobs - frozenJobsKept;
 
 			// Penalize for every feature that was already planned but was assigned another resource
-			for (PlannedFeature pf : solution.getPlannedFeatures()) {
-				if (previousFeatures.containsKey(pf.getFeature()) &&
-						!previousFeatures.get(pf.getFeature()).equals(pf.getEmployee()))
-				{
-					overall -= 0.1;
-				}
-			}
+			overall -= 0.1 * employeesChanged;
 		}
 
 		numberOfViolatedConstraints.setAttribute(solution, violatedConstraints);
@@ -309,4 +352,41 @@ public class NextReleaseProblem extends AbstractGenericProblem<PlanningSolution>
 		if (violatedConstraints > 0)
 			solutionQuality.setAttribute(solution, 0.0);
 	}
+
+	// Checks the constraints of the planned feature in the given position and saves them in the state
+	private void evaluateConstraints(EvaluationState state, int position) {
+		PlannedFeature currentFeature = state.getJob(position);
+		int f = state.getFeatureId(position);
+		int e = state.getEmployeeId(position);
+		boolean previouslyPlanned = previousPlan != null && previousPlan.isPlanned(f);
+
+		int horizon = -1;
+		int precedencesViolated = 0;
+
+		// Ignore precedence constraint if the planned feature is frozen in the previous plan
+		if (!previouslyPlanned || !previousPlan.isUnchanged(f, currentFeature)) {
+			for (int k = compiled.getPreviousBegin(f); k < compiled.getPreviousEnd(f); ++k) {
+				int previousFeature = compiled.getPrevious(k);
+				if (previousFeature == CompiledProblem.UNKNOWN) {
+					precedencesViolated++;
+					continue;
+				}
+
+				int previousPosition = state.positionOf(previousFeature);
+				if (previousPosition < 0) {
+					precedencesViolated++;
+					horizon = EvaluationState.UNPLANNED_DEPENDENCY;
+				} else {
+					horizon = Math.max(horizon, previousPosition);
+					if (state.getEndHour(previousFeature) > currentFeature.getBeginHour())
+						precedencesViolated++;
+				}
+			}
+		}
+
+		state.setConstraints(position, horizon, precedencesViolated,
+				compiled.missingSkills(f, e),
+				previouslyPlanned && previousPlan.isFrozen(f) && previousPlan.isUnchanged(f, currentFeature),
+				previouslyPlanned && previousPlan.getAssignee(f) != e);
+	}
 }
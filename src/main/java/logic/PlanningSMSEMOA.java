@@ -0,0 +1,65 @@
+package logic;
+
+import org.uma.jmetal.algorithm.multiobjective.smsemoa.SMSEMOA;
+import org.uma.jmetal.algorithm.multiobjective.smsemoa.SMSEMOABuilder;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.JMetalException;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import org.uma.jmetal.util.solutionattribute.Ranking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link SMSEMOA} evaluating its populations with a {@link SolutionListEvaluator}, as its builder does not take one and
+ * it evaluates the solutions one by one without their constraints.
+ */
+public class PlanningSMSEMOA<S extends Solution<?>> extends SMSEMOA<S> {
+
+    private static final long serialVersionUID = -5948787162786194633L; // Generated Id
+
+    private final SolutionListEvaluator<S> evaluator;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    public PlanningSMSEMOA(SMSEMOABuilder<S> builder, SolutionListEvaluator<S> evaluator) {
+        super(builder.getProblem(), builder.getMaxEvaluations(), builder.getPopulationSize(), builder.getOffset(),
+                builder.getCrossoverOperator(), builder.getMutationOperator(), builder.getSelectionOperator());
+        this.evaluator = evaluator;
+    }
+
+
+    /* --- EVALUATION --- */
+
+    @Override
+    protected List<S> evaluatePopulation(List<S> population) {
+        return evaluator.evaluate(population, problem);
+    }
+
+
+    /* --- REPLACEMENT --- */
+
+    /**
+     * Same replacement as {@link SMSEMOA}, dropping the solution of the last front with the least hypervolume
+     * contribution. jMetal cannot normalize a front whose solutions share the value of an objective, which with the two
+     * objectives of the problem means that they all have the same objectives, so the last of them is dropped instead.
+     */
+    @Override
+    protected List<S> replacement(List<S> population, List<S> offspringPopulation) {
+        try {
+            return super.replacement(population, offspringPopulation);
+        } catch (JMetalException e) {
+            List<S> jointPopulation = new ArrayList<>(population);
+            jointPopulation.addAll(offspringPopulation);
+            Ranking<S> ranking = computeRanking(jointPopulation);
+
+            List<S> resultPopulation = new ArrayList<>(jointPopulation.size() - 1);
+            for (int i = 0; i < ranking.getNumberOfSubfronts() - 1; ++i)
+                resultPopulation.addAll(ranking.getSubfront(i));
+            List<S> lastSubfront = ranking.getSubfront(ranking.getNumberOfSubfronts() - 1);
+            resultPopulation.addAll(lastSubfront.subList(0, lastSubfront.size() - 1));
+            return resultPopulation;
+        }
+    }
+}
@@ -9,11 +9,14 @@ import org.uma.jmetal.solution.impl.AbstractGenericSolution;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A solution for a particular {@link NextReleaseProblem}.
  * It also includes chunks of logic which should probably go somewhere else.
+ * <p>
+ * The genotype is the order of the planned features and the employees doing them, as ids of the
+ * {@link CompiledProblem}, so that copying a solution only copies a few arrays. The {@link PlannedFeature}s, with
+ * their hours, are made by the evaluation of the solution.
  */
 public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, NextReleaseProblem> {
 
@@ -24,13 +27,21 @@ public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, Ne
      * want this to happen, when creating child solutions in {@link logic.operators.PlanningCrossoverOperator}.
      */
     private boolean INITIALIZE_ON_CREATE = true;
-	
-    private List<PlannedFeature> plannedFeatures; 	            // Included features
-	private List<Feature> undoneFeatures; 						// Not included features
+
+	private int size;											// The number of planned features
+	private int[] order;										// The planned features, by position
+	private int[] assignment;									// The employees doing them, by position
+	private long[] planned;										// Bitset of the planned features
+	private int[] positions;									// The position of every feature, -1 if not planned
+	private long[] frozen;										// Bitset of the frozen jobs, null if there is none
+	private long fingerprint;									// XOR of the Zobrist keys of the planned features
     private Map<Employee, Schedule> employeesPlanning; 			// The employees' schedule
 	private double endDate;     								// The end hour of the solution
     private Analytics analytics = null;
 
+    private transient EvaluationState evaluation;				// What the last evaluation computed
+    private int firstModifiedPosition;							// Positions before it are unchanged since the last evaluation
+
     /* --- GETTERS / SETTERS --- */
 	public double getEndDate() {
 		return endDate;
@@ -40,26 +51,68 @@ public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, Ne
 	}
 
 	public int size() {
-		return plannedFeatures.size();
+		return size;
 	}
 
+	/**
+	 * @return a 64-bit fingerprint of the planned features, their employees and their positions, equal for equal
+	 * solutions (see {@link CompiledProblem#getKey(int, int, int)})
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	// The planned features and their employees as they are now
+	Genotype getGenotype() {
+		return new Genotype(Arrays.copyOf(order, size), Arrays.copyOf(assignment, size), fingerprint);
+	}
+
+	/**
+	 * @return the planned features in planning order, with their hours if the solution is evaluated
+	 */
     public List<PlannedFeature> getPlannedFeatures() {
+		if (isEvaluated())
+			return evaluation.getJobs();
+
+		List<PlannedFeature> plannedFeatures = new ArrayList<>(size);
+		for (int i = 0; i < size; ++i)
+			plannedFeatures.add(newJob(i));
 		return plannedFeatures;
 	}
 	public PlannedFeature getPlannedFeature(int position) {
-		if (position >= 0 && position < plannedFeatures.size())
-			return plannedFeatures.get(position);
+		if (position >= 0 && position < size)
+			return isEvaluated() ? evaluation.getJob(position) : newJob(position);
 		return null;
 	}
 
+	// The id of the feature planned in the given position
+	public int getFeatureId(int position) {
+		return order[position];
+	}
+
+	// The id of the employee doing the feature planned in the given position
+	public int getEmployeeId(int position) {
+		return assignment[position];
+	}
+
 	public List<PlannedFeature> getEndPlannedFeaturesSubListCopy(int beginPosition) {
+		List<PlannedFeature> plannedFeatures = getPlannedFeatures();
 		return new ArrayList<>(plannedFeatures.subList(beginPosition, plannedFeatures.size()));
 	}
 
 	public List<Feature> getUndoneFeatures() {
+		CompiledProblem compiled = problem.getCompiledProblem();
+		List<Feature> undoneFeatures = new ArrayList<>(getNbUndoneFeatures());
+		for (int f = 0; f < compiled.getNbFeatures(); ++f)
+			if (!isPlanned(f))
+				undoneFeatures.add(compiled.getFeature(f));
 		return undoneFeatures;
 	}
 
+	public int getNbUndoneFeatures() {
+		return problem.getCompiledProblem().getNbFeatures() - size;
+	}
+
 	public Map<Employee, Schedule> getEmployeesPlanning() {
 		return employeesPlanning;
 	}
@@ -72,6 +125,67 @@ public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, Ne
     public Analytics getAnalytics() { return analytics; }
     public void setAnalytics(Analytics analytics) { this.analytics = analytics; }
 
+	EvaluationState getEvaluationState() { return evaluation; }
+	void setEvaluationState(EvaluationState evaluation) { this.evaluation = evaluation; }
+
+	/**
+	 * The evaluation state, ready to be modified: a state shared with copies of this solution is copied first, up to
+	 * the given number of positions
+	 */
+	EvaluationState ownEvaluationState(int nbJobs) {
+		if (evaluation != null && evaluation.isShared())
+			evaluation = new EvaluationState(evaluation, Math.min(nbJobs, evaluation.size()));
+		return evaluation;
+	}
+
+	// The position of the first planned feature that may have changed since the last evaluation
+	int getFirstModifiedPosition() { return firstModifiedPosition; }
+
+	// Called once evaluated, the planned features are up to date with the evaluation state
+	void evaluated() { firstModifiedPosition = size; }
+
+	/**
+	 * Makes this solution a copy of origin, an evaluated solution equal to this one before its evaluation, so that a
+	 * clone does not need to be evaluated again. The evaluation may have unscheduled features, so the planned features
+	 * are copied too.
+	 */
+	void copyEvaluation(PlanningSolution origin) {
+		copyGenotype(origin);
+		copyEvaluationOf(origin);
+	}
+
+	// A new planned feature for the given position, without hours
+	PlannedFeature newJob(int position) {
+		CompiledProblem compiled = problem.getCompiledProblem();
+		PlannedFeature pf = new PlannedFeature(compiled.getFeature(order[position]), compiled.getEmployee(assignment[position]));
+		pf.setFrozen(frozen != null && isSet(frozen, order[position]));
+		return pf;
+	}
+
+	/**
+	 * @return the begin hour of the feature in the planning, NaN if it is not planned
+	 */
+	public double getBeginHour(Feature feature) {
+		int f = problem.getCompiledProblem().featureId(feature);
+		if (f != CompiledProblem.UNKNOWN && isEvaluated())
+			return evaluation.getBeginHour(f);
+
+		PlannedFeature pf = findPlannedFeature(feature);
+		return pf == null ? Double.NaN : pf.getBeginHour();
+	}
+
+	/**
+	 * @return the end hour of the feature in the planning, NaN if it is not planned
+	 */
+	public double getEndHour(Feature feature) {
+		int f = problem.getCompiledProblem().featureId(feature);
+		if (f != CompiledProblem.UNKNOWN && isEvaluated())
+			return evaluation.getEndHour(f);
+
+		PlannedFeature pf = findPlannedFeature(feature);
+		return pf == null ? Double.NaN : pf.getEndHour();
+	}
+
 
 	/* --- CONSTRUCTORS --- */
 
@@ -96,13 +210,20 @@ public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, Ne
 	    super(problem);
 
 	    numberOfViolatedConstraints = 0;
-	    undoneFeatures = new CopyOnWriteArrayList<>();
-		undoneFeatures.addAll(problem.getFeatures());
+		initializeGenotype();
 
-		this.plannedFeatures = new CopyOnWriteArrayList<>();
+		CompiledProblem compiled = problem.getCompiledProblem();
 		for (PlannedFeature plannedFeature : plannedFeatures) {
-			if (plannedFeature.isFrozen()) this.plannedFeatures.add(plannedFeature);
-			else scheduleAtTheEnd(plannedFeature.getFeature(), plannedFeature.getEmployee());
+			int f = compiled.featureId(plannedFeature.getFeature());
+			int e = compiled.employeeId(plannedFeature.getEmployee());
+			if (f == CompiledProblem.UNKNOWN || e == CompiledProblem.UNKNOWN) continue;
+
+			scheduleAtTheEnd(f, e);
+			if (plannedFeature.isFrozen()) {
+				if (frozen == null)
+					frozen = new long[planned.length];
+				set(frozen, f, true);
+			}
 		}
 
 	    initializeObjectiveValues();
@@ -112,82 +233,175 @@ public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, Ne
 	public PlanningSolution(PlanningSolution origin) {
 		super(origin.problem);
 
+		copyGenotype(origin);
+		copyEvaluationOf(origin);
+	}
+
+	private void copyGenotype(PlanningSolution origin) {
+		size = origin.size;
+		order = origin.order.clone();
+		assignment = origin.assignment.clone();
+		planned = origin.planned.clone();
+		positions = origin.positions.clone();
+		frozen = origin.frozen == null ? null : origin.frozen.clone();
+		fingerprint = origin.fingerprint;
+	}
+
+	private void copyEvaluationOf(PlanningSolution origin) {
 	    numberOfViolatedConstraints = origin.numberOfViolatedConstraints;
 
-	    plannedFeatures = new CopyOnWriteArrayList<>();
-	    for (PlannedFeature plannedFeature : origin.getPlannedFeatures())
-			plannedFeatures.add(new PlannedFeature(plannedFeature));
-	    
 	    // Copy constraints and quality
 	    this.attributes.putAll(origin.attributes);
-	    
-	    employeesPlanning = new HashMap<>();
-	    for (Employee e : origin.employeesPlanning.keySet()) {
-	    	Schedule old = origin.employeesPlanning.get(e);
-			employeesPlanning.put(e, new Schedule(old));
+
+		// The evaluation is shared until one of the solutions changes it
+		if (origin.evaluation != null) {
+			origin.evaluation.share();
+			evaluation = origin.evaluation;
+			firstModifiedPosition = origin.firstModifiedPosition;
 		}
+		if (origin.employeesPlanning != null)
+			employeesPlanning = new HashMap<>(origin.employeesPlanning);
 	    
 	    for (int i = 0 ; i < origin.getNumberOfObjectives() ; i++)
 	    	this.setObjective(i, origin.getObjective(i));
 
 	    endDate = origin.getEndDate();
-	    undoneFeatures = new CopyOnWriteArrayList<>(origin.getUndoneFeatures());
 	}
 
 
 	// Exchange the two features in positions pos1 and pos2
 	public void exchange(int pos1, int pos2) {
-		if (pos1 >= 0 && pos2 >= 0 && pos1 < plannedFeatures.size() && pos2 < plannedFeatures.size() && pos1 != pos2) {
-			PlannedFeature feature1 = plannedFeatures.get(pos1);
-			plannedFeatures.set(pos1, plannedFeatures.get(pos2));
-			plannedFeatures.set(pos2, feature1);
+		if (pos1 >= 0 && pos2 >= 0 && pos1 < size && pos2 < size && pos1 != pos2) {
+			fingerprint ^= key(pos1) ^ key(pos2);
+			int feature1 = order[pos1];
+			int employee1 = assignment[pos1];
+			order[pos1] = order[pos2];
+			assignment[pos1] = assignment[pos2];
+			order[pos2] = feature1;
+			assignment[pos2] = employee1;
+			positions[order[pos1]] = pos1;
+			positions[order[pos2]] = pos2;
+			fingerprint ^= key(pos1) ^ key(pos2);
+			modified(Math.min(pos1, pos2));
+		}
+	}
+
+	/**
+	 * Adds at the end of the planning an unplanned feature, scheduled right after the features already planned for its
+	 * employee even if it ends after the release (see {@link Schedule#forceSchedule(PlannedFeature)}), without
+	 * evaluating the solution again.
+	 */
+	public void forceSchedule(PlannedFeature pf) {
+		CompiledProblem compiled = problem.getCompiledProblem();
+		int f = compiled.featureId(pf.getFeature());
+		int e = compiled.employeeId(pf.getEmployee());
+		if (f == CompiledProblem.UNKNOWN || e == CompiledProblem.UNKNOWN || isPlanned(f))
+			return;
+
+		if (!isEvaluated())
+			problem.evaluate(this);
+
+		EvaluationState state = ownEvaluationState(size);
+		state.forceSchedule(pf, f, e);
+		insert(size, f, e);
+		if (pf.isFrozen()) {
+			if (frozen == null)
+				frozen = new long[planned.length];
+			set(frozen, f, true);
+		}
+
+		evaluated();
+		employeesPlanning = state.getEmployeesPlanning();
+	}
+
+	// Assigns the planned feature in the given position to another employee
+	public void changeEmployee(int position, Employee e) {
+		fingerprint ^= key(position);
+		assignment[position] = problem.getCompiledProblem().employeeId(e);
+		fingerprint ^= key(position);
+		modified(position);
+	}
+
+	/**
+	 * Reuses the evaluation of origin for the leading planned features this solution does the same way, if they are
+	 * more than the ones already reused. Meant for the children made by the crossover, before they are evaluated.
+	 * @param origin an evaluated solution of the same problem
+	 */
+	public void reuseEvaluation(PlanningSolution origin) {
+		EvaluationState state = origin.evaluation;
+		if (state == null || origin.problem != problem)
+			return;
+
+		int valid = state.commonWork(origin, origin.firstModifiedPosition);
+		int shared = state.commonWork(this, valid);
+		int reused = evaluation == null ? 0 : Math.min(firstModifiedPosition, evaluation.size());
+		if (shared > reused) {
+			evaluation = new EvaluationState(state, shared);
+			// At least the last position is evaluated again, for the objectives of a child that is a whole prefix
+			// of origin to be computed too
+			firstModifiedPosition = Math.min(shared, size - 1);
 		}
 	}
 	
     // Calculate the sum of the priority of each feature
 	public double getPriorityScore() {
-		double score = problem.getWorstScore();
-		for (PlannedFeature plannedFeature : plannedFeatures)
-			score -= plannedFeature.getFeature().getPriority().getScore();
+		CompiledProblem compiled = problem.getCompiledProblem();
+		double score = compiled.getWorstScore();
+		for (int i = 0; i < size; ++i)
+			score -= compiled.getPriorityScore(order[i]);
 		return score;
 	}
 	
 	// Returns all of the planned features done by a specific employee
 	public List<PlannedFeature> getFeaturesDoneBy(Employee e) {
+		// Once evaluated, they are the ones in the schedule of the employee
+		if (isEvaluated() && employeesPlanning != null) {
+			Schedule schedule = employeesPlanning.get(e);
+			return schedule == null ? new ArrayList<>() : new ArrayList<>(schedule.getPlannedFeatures());
+		}
+
+		int employee = problem.getCompiledProblem().employeeId(e);
 		List<PlannedFeature> featuresOfEmployee = new ArrayList<>();
-		for (PlannedFeature plannedFeature : plannedFeatures)
-			if (plannedFeature.getEmployee().equals(e))
-				featuresOfEmployee.add(plannedFeature);
+		for (int i = 0; i < size; ++i)
+			if (assignment[i] == employee)
+				featuresOfEmployee.add(getPlannedFeature(i));
 		return featuresOfEmployee;
 	}
 
 	// Return true if the feature is already in the planned features
 	public boolean isAlreadyPlanned(Feature feature) {
-		for (PlannedFeature pf : plannedFeatures)
-			if (pf.getFeature().equals(feature))
-				return true;
-
-		return false;
+		int f = problem.getCompiledProblem().featureId(feature);
+		return f != CompiledProblem.UNKNOWN && isPlanned(f);
 	}
 
 	// Returns the planned feature corresponding to the feature given in parameter
 	public PlannedFeature findPlannedFeature(Feature feature) {
-		for (PlannedFeature plannedFeature : plannedFeatures)
-			if (plannedFeature.getFeature().equals(feature))
-				return plannedFeature;
-		return null;
+		int f = problem.getCompiledProblem().featureId(feature);
+		if (f == CompiledProblem.UNKNOWN || !isPlanned(f))
+			return null;
+		return getPlannedFeature(positionOf(f));
+	}
+
+	// Allocates an empty genotype
+	private void initializeGenotype() {
+		int nbFeatures = problem.getCompiledProblem().getNbFeatures();
+		size = 0;
+		order = new int[nbFeatures];
+		assignment = new int[nbFeatures];
+		planned = new long[(nbFeatures + 63) / 64];
+		positions = new int[nbFeatures];
+		Arrays.fill(positions, -1);
+		fingerprint = 0;
 	}
 	
 	// Initialize the variables. Load a random number of planned features
 	private void initializePlannedFeatureVariables() {
 		int nbFeaturesToDo = problem.getFeatures().size();
-		
-		undoneFeatures = new CopyOnWriteArrayList<>();
-		undoneFeatures.addAll(problem.getFeatures());
-		plannedFeatures = new CopyOnWriteArrayList<>();
+
+		initializeGenotype();
 
 		if (INITIALIZE_ON_CREATE) {
-            if (randomGenerator.nextDouble() > getProblem().getAlgorithmParameters().getRateOfNotRandomSolution())
+            if (problem.getRandom().nextDouble() > getProblem().getAlgorithmParameters().getRateOfNotRandomSolution())
                 initializePlannedFeaturesRandomly(nbFeaturesToDo);
             else
                 initializePlannedFeaturesWithPrecedences(nbFeaturesToDo);
@@ -196,102 +410,201 @@ public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, Ne
 
     // Initializes the planned features randomly
     private void initializePlannedFeaturesRandomly(int numFeaturesToPlan) {
-        Feature featureToDo;
-        List<Employee> skilledEmployees;
+        CompiledProblem compiled = problem.getCompiledProblem();
+        int featureToDo;
+        int[] skilledEmployees;
 
         for (int i = 0 ; i < numFeaturesToPlan ; i++) {
-            featureToDo = undoneFeatures.get(randomGenerator.nextInt(0, undoneFeatures.size()-1));
-            skilledEmployees = problem.getSkilledEmployees(featureToDo.getRequiredSkills());
+            featureToDo = undoneFeature(problem.getRandom().nextInt(0, getNbUndoneFeatures() - 1));
+            skilledEmployees = compiled.getEligibleEmployees(featureToDo);
 
-            if (skilledEmployees.size() > 0)
-                scheduleAtTheEnd(featureToDo,
-                        skilledEmployees.get(randomGenerator.nextInt(0, skilledEmployees.size() - 1)));
+            if (skilledEmployees.length > 0)
+                scheduleAtTheEnd(featureToDo, randomEmployee(skilledEmployees));
         }
     }
 
-	// Initializes the planned features considering the precedences
+	/*
+		Initializes the planned features considering the precedences: every feature is picked at random among the ones
+		whose dependencies are all planned. Those are kept in a ready set, updated by counting the dependencies of every
+		feature that are not planned yet (Kahn's algorithm).
+	 */
 	private void initializePlannedFeaturesWithPrecedences(int numFeaturesToPlan) {
-		Feature featureToDo;
-		List<Employee> skilledEmployees;
-		List<Feature> possibleFeatures = updatePossibleFeatures();
-		int i = 0;
-		while (i < numFeaturesToPlan && possibleFeatures.size() > 0) {
-			featureToDo = possibleFeatures.get(randomGenerator.nextInt(0, possibleFeatures.size()-1));
-			skilledEmployees = problem.getSkilledEmployees(featureToDo.getRequiredSkills());
-			scheduleAtTheEnd(featureToDo, skilledEmployees.get(randomGenerator.nextInt(0, skilledEmployees.size()-1)));
-			possibleFeatures = updatePossibleFeatures();
-			i++;
+		CompiledProblem compiled = problem.getCompiledProblem();
+		int nbFeatures = compiled.getNbFeatures();
+
+		int[] pendingDependencies = new int[nbFeatures];
+		int[] ready = new int[nbFeatures];
+		int nbReady = 0;
+		for (int f = 0; f < nbFeatures; ++f) {
+			pendingDependencies[f] = compiled.getPreviousEnd(f) - compiled.getPreviousBegin(f);
+			if (pendingDependencies[f] == 0)
+				ready[nbReady++] = f;
 		}
-	}
-	
-	// Reset the begin hours of all the planned feature to 0.0
-	public void resetHours() {
-		for (PlannedFeature plannedFeature : plannedFeatures) {
-			plannedFeature.setBeginHour(0.0);
-			plannedFeature.setEndHour(0.0);
+
+		int nbPlanned = 0;
+		while (nbPlanned < numFeaturesToPlan && nbReady > 0) {
+			int r = problem.getRandom().nextInt(0, nbReady - 1);
+			int f = ready[r];
+			ready[r] = ready[--nbReady];
+
+			insert(size, f, randomEmployee(compiled.getEligibleEmployees(f)));
+			++nbPlanned;
+
+			for (int k = compiled.getNextBegin(f); k < compiled.getNextEnd(f); ++k) {
+				int next = compiled.getNext(k);
+				if (--pendingDependencies[next] == 0)
+					ready[nbReady++] = next;
+			}
 		}
 	}
 
 	// Schedule a planned feature to a position in the planning
 	public void schedule(int position, Feature feature, Employee e) {
-		undoneFeatures.remove(feature);
-		plannedFeatures.add(position, new PlannedFeature(feature, e));
+		CompiledProblem compiled = problem.getCompiledProblem();
+		int f = compiled.featureId(feature);
+		int current = positionOf(f);
+		if (current >= 0) {
+			remove(current);
+			if (current < position)
+				--position;
+		}
+		insert(position, f, compiled.employeeId(e));
 	}
 		
 	// Schedule a feature in the planning
 	public void scheduleAtTheEnd(Feature feature, Employee e) {
-		if (isAlreadyPlanned(feature)) plannedFeatures.remove(findPlannedFeature(feature));
-		else undoneFeatures.remove(feature);
-        plannedFeatures.add(new PlannedFeature(feature, e));
+		CompiledProblem compiled = problem.getCompiledProblem();
+		scheduleAtTheEnd(compiled.featureId(feature), compiled.employeeId(e));
+	}
+
+	// Schedule feature f at the end of the planning, done by employee e (ids of the compiled problem)
+	public void scheduleAtTheEnd(int f, int e) {
+		int position = positionOf(f);
+		if (position >= 0)
+			remove(position);
+		insert(size, f, e);
 	}
 	
 	// Schedule a random undone feature to a random place in the planning
 	public void scheduleRandomFeature() {
-		scheduleRandomFeature(randomGenerator.nextInt(0, plannedFeatures.size()));
+		scheduleRandomFeature(problem.getRandom().nextInt(0, size));
 	}
 	
 	// Schedule a random feature to insertionPosition of the planning list
 	public void scheduleRandomFeature(int insertionPosition) {
-		if (undoneFeatures.size() <= 0)
+		if (getNbUndoneFeatures() <= 0)
 			return;
-		Feature newFeature = undoneFeatures.get(randomGenerator.nextInt(0, undoneFeatures.size() -1));
-		List<Employee> skilledEmployees = problem.getSkilledEmployees(newFeature.getRequiredSkills());
-		Employee newEmployee = skilledEmployees.get(randomGenerator.nextInt(0, skilledEmployees.size()-1));
-		schedule(insertionPosition, newFeature, newEmployee);
+		CompiledProblem compiled = problem.getCompiledProblem();
+		int newFeature = undoneFeature(problem.getRandom().nextInt(0, getNbUndoneFeatures() - 1));
+		int newEmployee = randomEmployee(compiled.getEligibleEmployees(newFeature));
+		insert(insertionPosition, newFeature, newEmployee);
+	}
+
+	// Picks a random employee among the given employee ids
+	private int randomEmployee(int[] employees) {
+		return employees[problem.getRandom().nextInt(0, employees.length - 1)];
 	}
 	
 	// Schedule the planned feature at a random position in the planning
 	public void scheduleRandomly(PlannedFeature plannedFeature) {
-		schedule(randomGenerator.nextInt(0, plannedFeatures.size()), plannedFeature.getFeature(), plannedFeature.getEmployee());
+		schedule(problem.getRandom().nextInt(0, size), plannedFeature.getFeature(), plannedFeature.getEmployee());
 	}
 
 	// Unschedule a feature : remove it from the planned features and add it to the undone ones
 	public void unschedule(PlannedFeature plannedFeature) {
-		if (isAlreadyPlanned(plannedFeature.getFeature())) {
-			undoneFeatures.add(plannedFeature.getFeature());
-			plannedFeatures.remove(plannedFeature);
+		int f = problem.getCompiledProblem().featureId(plannedFeature.getFeature());
+		if (f != CompiledProblem.UNKNOWN && isPlanned(f))
+			remove(positionOf(f));
+	}
+
+	// Unschedule the feature planned in the given position
+	void unschedule(int position) {
+		remove(position);
+	}
+
+	// Inserts feature f, which is not planned, done by employee e in the given position
+	private void insert(int position, int f, int e) {
+		for (int i = position; i < size; ++i)
+			fingerprint ^= key(i);
+		System.arraycopy(order, position, order, position + 1, size - position);
+		System.arraycopy(assignment, position, assignment, position + 1, size - position);
+		order[position] = f;
+		assignment[position] = e;
+		++size;
+		set(planned, f, true);
+		for (int i = position; i < size; ++i) {
+			positions[order[i]] = i;
+			fingerprint ^= key(i);
 		}
+		modified(position);
+	}
+
+	// Removes the feature planned in the given position
+	private void remove(int position) {
+		int f = order[position];
+		for (int i = position; i < size; ++i)
+			fingerprint ^= key(i);
+		System.arraycopy(order, position + 1, order, position, size - position - 1);
+		System.arraycopy(assignment, position + 1, assignment, position, size - position - 1);
+		--size;
+		set(planned, f, false);
+		if (frozen != null)
+			set(frozen, f, false);
+		positions[f] = -1;
+		for (int i = position; i < size; ++i) {
+			positions[order[i]] = i;
+			fingerprint ^= key(i);
+		}
+		modified(position);
 	}
 
-	// Creates a list of the possible features to do regarding to the precedences of the undone features
-	private List<Feature> updatePossibleFeatures() {
-		List<Feature> possibleFeatures = new ArrayList<>();
-		boolean possible;
-		int i;
-		
-		for (Feature feature : undoneFeatures) {
-			possible = true;
-			i = 0;
-			while (possible && i < feature.getPreviousFeatures().size()) {
-				if (!isAlreadyPlanned(feature.getPreviousFeatures().get(i)))
-					possible = false;
-				i++;
+	// The Zobrist key of the planned feature in the given position
+	private long key(int position) {
+		return problem.getCompiledProblem().getKey(order[position], assignment[position], position);
+	}
+
+	// The position of feature f in the planning, -1 if it is not planned
+	private int positionOf(int f) {
+		return f == CompiledProblem.UNKNOWN ? -1 : positions[f];
+	}
+
+	private boolean isPlanned(int f) {
+		return isSet(planned, f);
+	}
+
+	// The n-th feature that is not planned, in the order of the ids
+	private int undoneFeature(int n) {
+		for (int w = 0; ; ++w) {
+			long undone = ~planned[w];
+			int nbUndone = Long.bitCount(undone);
+			if (n < nbUndone) {
+				for (; n > 0; --n)
+					undone &= undone - 1;
+				return 64 * w + Long.numberOfTrailingZeros(undone);
 			}
-			if (possible)
-				possibleFeatures.add(feature);
+			n -= nbUndone;
 		}
-		
-		return possibleFeatures;
+	}
+
+	private static boolean isSet(long[] bits, int i) {
+		return (bits[i >>> 6] & (1L << i)) != 0;
+	}
+
+	private static void set(long[] bits, int i, boolean value) {
+		if (value)
+			bits[i >>> 6] |= 1L << i;
+		else
+			bits[i >>> 6] &= ~(1L << i);
+	}
+
+	// True if the evaluation state is the one of the current planned features
+	private boolean isEvaluated() {
+		return evaluation != null && firstModifiedPosition >= size && evaluation.size() == size;
+	}
+
+	// Records that the planned features may have changed from the given position on
+	private void modified(int position) {
+		firstModifiedPosition = Math.min(firstModifiedPosition, position);
 	}
 
 	@Override
@@ -307,7 +620,7 @@ public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, Ne
 	
 	@Override
 	public int hashCode() {
-		return getPlannedFeatures().size();
+		return Long.hashCode(fingerprint);
 	}
 	
 	@Override
@@ -315,20 +628,25 @@ public class PlanningSolution extends AbstractGenericSolution<PlannedFeature, Ne
 		if (this == obj)
 			return true;
 
-		if (getClass() != obj.getClass())
+		if (obj == null || getClass() != obj.getClass())
 			return false;
 
 		PlanningSolution other = (PlanningSolution) obj;
 
-		if (this.getPlannedFeatures().size() == other.getPlannedFeatures().size())
-			return this.getPlannedFeatures().containsAll(other.getPlannedFeatures());
+		// Different fingerprints are different plannings, equal ones are almost always the same
+		if (fingerprint != other.fingerprint || size != other.size)
+			return false;
+
+		for (int i = 0; i < size; ++i)
+			if (order[i] != other.order[i] || assignment[i] != other.assignment[i])
+				return false;
 
-		return false;
+		return true;
 	}
 	
 	@Override
 	public String toString() {
-		return String.format("%d/%d features planned", plannedFeatures.size(), plannedFeatures.size() + undoneFeatures.size());
+		return String.format("%d/%d features planned", size, size + getNbUndoneFeatures());
 	}
 
 	public String toR() {
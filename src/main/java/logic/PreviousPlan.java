@@ -0,0 +1,78 @@
+package logic;
+
+import entities.Feature;
+import entities.PlannedFeature;
+import io.swagger.model.ApiPlanningSolution;
+
+/**
+ * View of the previous plan of a {@link NextReleaseProblem} indexed by the feature ids of its {@link CompiledProblem},
+ * so that the frozen jobs and the previous assignee of a feature are found without searching the jobs.
+ * <p>
+ * As {@link ApiPlanningSolution#findJobOf(Feature)}, only the first job of every feature is considered.
+ */
+public class PreviousPlan {
+
+    private final CompiledProblem compiled;
+
+    // By feature id, null and CompiledProblem.UNKNOWN when the feature was not planned
+    private final PlannedFeature[] jobs;
+    private final int[] assignees;
+
+    private final int nbFrozenJobs;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    public PreviousPlan(ApiPlanningSolution previousSolution, CompiledProblem compiled) {
+        this.compiled = compiled;
+
+        jobs = new PlannedFeature[compiled.getNbFeatures()];
+        assignees = new int[compiled.getNbFeatures()];
+
+        int frozen = 0;
+        for (PlannedFeature job : previousSolution.getJobs()) {
+            if (job.isFrozen())
+                ++frozen;
+
+            int f = compiled.featureId(job.getFeature());
+            if (f != CompiledProblem.UNKNOWN && jobs[f] == null) {
+                jobs[f] = job;
+                assignees[f] = compiled.employeeId(job.getEmployee());
+            }
+        }
+        nbFrozenJobs = frozen;
+    }
+
+
+    /* --- GETTERS --- */
+
+    /**
+     * @return the job of feature f in the previous plan, null if it was not planned
+     */
+    public PlannedFeature getJob(int f) { return jobs[f]; }
+
+    public boolean isPlanned(int f) { return jobs[f] != null; }
+
+    public boolean isFrozen(int f) { return jobs[f] != null && jobs[f].isFrozen(); }
+
+    public boolean isFrozen(Feature feature) {
+        int f = compiled.featureId(feature);
+        return f != CompiledProblem.UNKNOWN && isFrozen(f);
+    }
+
+    /**
+     * @return the id of the employee that did feature f in the previous plan, {@link CompiledProblem#UNKNOWN} if the
+     * feature was not planned or the employee is not part of the problem
+     */
+    public int getAssignee(int f) { return jobs[f] == null ? CompiledProblem.UNKNOWN : assignees[f]; }
+
+    /**
+     * @return true if the given planned feature is done by the same employee at the same hours as in the previous plan
+     */
+    public boolean isUnchanged(int f, PlannedFeature pf) { return jobs[f] != null && jobs[f].equals(pf); }
+
+    /**
+     * @return the number of frozen jobs of the previous plan, including the ones of features not in the problem
+     */
+    public int getNbFrozenJobs() { return nbFrozenJobs; }
+}
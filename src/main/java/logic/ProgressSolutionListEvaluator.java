@@ -0,0 +1,87 @@
+package logic;
+
+import logic.comparators.PlanningSolutionDominanceComparator;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.JMetalException;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Evaluates the solutions with another {@link SolutionListEvaluator}, keeping the best one evaluated so far and
+ * calling a {@link SolveListener} with it every given number of generations.
+ * <p>
+ * Every algorithm evaluates all its new solutions through its evaluator, a whole population at once for the
+ * generational ones and a few solutions at a time for the steady-state ones (MOCell, SMS-EMOA), so a generation is
+ * counted as many evaluated solutions as the size of the population. The best solution is the first one according to
+ * {@link PlanningSolutionDominanceComparator}, as the result of the solve.
+ */
+public class ProgressSolutionListEvaluator implements SolutionListEvaluator<PlanningSolution> {
+
+    private static final long serialVersionUID = -1411585150015087076L; // Generated Id
+
+    private final SolutionListEvaluator<PlanningSolution> evaluator;
+    private final SolveListener listener;
+    private final int populationSize;
+    private final int everyGenerations;
+    private final Comparator<PlanningSolution> comparator = new PlanningSolutionDominanceComparator();
+
+    private PlanningSolution best;
+    private int evaluations = 0;
+    private int nextGeneration;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * @param populationSize the number of evaluated solutions making a generation
+     * @param everyGenerations the number of generations between two calls of the listener
+     */
+    public ProgressSolutionListEvaluator(SolutionListEvaluator<PlanningSolution> evaluator, SolveListener listener,
+                                         int populationSize, int everyGenerations) {
+        this.evaluator = evaluator;
+        this.listener = listener;
+        this.populationSize = Math.max(1, populationSize);
+        this.everyGenerations = Math.max(1, everyGenerations);
+        nextGeneration = this.everyGenerations;
+    }
+
+
+    /* --- EVALUATION --- */
+
+    @Override
+    public List<PlanningSolution> evaluate(List<PlanningSolution> solutionList, Problem<PlanningSolution> problem)
+            throws JMetalException {
+        evaluator.evaluate(solutionList, problem);
+
+        for (PlanningSolution solution : solutionList)
+            if (best == null || comparator.compare(solution, best) < 0)
+                best = solution;
+        evaluations += solutionList.size();
+
+        int generation = evaluations / populationSize;
+        if (generation >= nextGeneration && best != null) {
+            nextGeneration = generation + everyGenerations;
+            listener.onProgress(generation, evaluations, best);
+        }
+
+        return solutionList;
+    }
+
+    @Override
+    public void shutdown() {
+        evaluator.shutdown();
+    }
+
+    /**
+     * @return the best solution evaluated so far, null before the first evaluation
+     */
+    public PlanningSolution getBest() {
+        return best;
+    }
+
+    public int getEvaluations() {
+        return evaluations;
+    }
+}
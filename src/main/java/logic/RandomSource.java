@@ -0,0 +1,65 @@
+package logic;
+
+import java.util.SplittableRandom;
+
+/**
+ * The random numbers of a single solve, so that concurrent solves don't share a generator and a solve can be
+ * reproduced from its seed.
+ * <p>
+ * Every thread draws from its own {@link SplittableRandom}, split from the one of the seed the first time the thread
+ * asks for a number. The numbers drawn by the thread running the solve only depend on the seed, as long as it is the
+ * first thread to use the source.
+ */
+public class RandomSource {
+
+    private final long seed;
+    private final SplittableRandom root;
+    private final ThreadLocal<SplittableRandom> generators = ThreadLocal.withInitial(this::split);
+
+
+    /* --- CONSTRUCTORS --- */
+
+    // With a seed of its own, different for every source
+    public RandomSource() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    public RandomSource(long seed) {
+        this.seed = seed;
+        root = new SplittableRandom(seed);
+    }
+
+
+    /* --- RANDOM NUMBERS --- */
+
+    /**
+     * @return a random int between lowerBound and upperBound, both included, as
+     * {@link org.uma.jmetal.util.pseudorandom.JMetalRandom#nextInt(int, int)}
+     */
+    public int nextInt(int lowerBound, int upperBound) {
+        return generators.get().nextInt(lowerBound, upperBound + 1);
+    }
+
+    /**
+     * @return a random double between 0.0 (included) and 1.0 (excluded)
+     */
+    public double nextDouble() {
+        return generators.get().nextDouble();
+    }
+
+    /**
+     * @return a random double between lowerBound (included) and upperBound (excluded)
+     */
+    public double nextDouble(double lowerBound, double upperBound) {
+        return generators.get().nextDouble(lowerBound, upperBound);
+    }
+
+    public long getSeed() { return seed; }
+
+
+    /* --- PRIVATE --- */
+
+    private synchronized SplittableRandom split() {
+        return root.split();
+    }
+}
@@ -0,0 +1,123 @@
+package logic;
+
+import entities.Employee;
+import entities.Skill;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives an id to every skill owned by the employees of a problem and stores the skills of every employee as a bitset
+ * (one bit per skill id, packed in a long[]), so that checking whether an employee has a set of skills is a handful
+ * of bitwise operations instead of a containsAll on lists of skills.
+ */
+public class SkillIndex {
+
+    /**
+     * Id of a skill that no employee has
+     */
+    public static final int UNKNOWN = -1;
+
+    private final Employee[] employees;
+    private final Map<String, Integer> skillIds = new HashMap<>();
+    private final long[][] employeeMasks;
+    private final int nbWords;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    public SkillIndex(List<Employee> employees) {
+        this.employees = employees == null ? new Employee[0] : employees.toArray(new Employee[employees.size()]);
+
+        for (Employee employee : this.employees)
+            for (Skill skill : employee.getSkills())
+                skillIds.putIfAbsent(skill.getName(), skillIds.size());
+
+        nbWords = Math.max(1, (skillIds.size() + 63) / 64);
+
+        employeeMasks = new long[this.employees.length][];
+        for (int e = 0; e < this.employees.length; ++e)
+            employeeMasks[e] = maskOf(this.employees[e].getSkills());
+    }
+
+
+    /* --- PUBLIC --- */
+
+    public int getNbSkills() { return skillIds.size(); }
+
+    public Employee getEmployee(int e) { return employees[e]; }
+
+    public int getNbEmployees() { return employees.length; }
+
+    /**
+     * @return the id of the skill, or {@link #UNKNOWN} if no employee has it
+     */
+    public int skillId(Skill skill) {
+        return skillIds.getOrDefault(skill.getName(), UNKNOWN);
+    }
+
+    /**
+     * @return the bitset of the given skills, or null if some of them is not owned by any employee
+     */
+    public long[] maskOf(List<Skill> skills) {
+        long[] mask = new long[nbWords];
+        for (Skill skill : skills) {
+            int s = skillId(skill);
+            if (s == UNKNOWN)
+                return null;
+            mask[s >>> 6] |= 1L << s;
+        }
+        return mask;
+    }
+
+    public boolean hasSkill(int e, int s) {
+        return s != UNKNOWN && (employeeMasks[e][s >>> 6] & (1L << s)) != 0L;
+    }
+
+    /**
+     * @param mask a bitset returned by {@link #maskOf(List)}
+     * @return true if employee e has all the skills of the mask
+     */
+    public boolean hasSkills(int e, long[] mask) {
+        if (mask == null)
+            return false;
+
+        long[] employeeMask = employeeMasks[e];
+        for (int w = 0; w < nbWords; ++w)
+            if ((mask[w] & ~employeeMask[w]) != 0L)
+                return false;
+        return true;
+    }
+
+    /**
+     * @return the ids of the employees having all the skills of the mask
+     */
+    public int[] employeesWith(long[] mask) {
+        int[] buffer = new int[employees.length];
+        int n = 0;
+        for (int e = 0; e < employees.length; ++e)
+            if (hasSkills(e, mask))
+                buffer[n++] = e;
+
+        int[] result = new int[n];
+        System.arraycopy(buffer, 0, result, 0, n);
+        return result;
+    }
+
+    /**
+     * @return the employees having all the given skills
+     */
+    public List<Employee> employeesWith(List<Skill> skills) {
+        int[] ids = employeesWith(maskOf(skills));
+        if (ids.length == 0)
+            return Collections.emptyList();
+
+        List<Employee> result = new ArrayList<>(ids.length);
+        for (int e : ids)
+            result.add(employees[e]);
+        return result;
+    }
+}
@@ -28,23 +28,17 @@ public class SolutionEvaluator {
         NextReleaseProblem problem = solution.getProblem();
         double worstEndDate = problem.getNbWeeks() * problem.getNbHoursByWeek();
 
-        return solution.getPlannedFeatures().isEmpty() ? worstEndDate : solution.getEndDate();
+        return solution.size() == 0 ? worstEndDate : solution.getEndDate();
     }
 
     public double distributionObjective(PlanningSolution solution) {
         Map<Employee, Double> hoursPerEmployee = new HashMap<>();
         double totalHours = 0.0;
         for (Map.Entry<Employee, Schedule> entry : solution.getEmployeesPlanning().entrySet()) {
-            Employee employee = entry.getKey();
-            hoursPerEmployee.put(employee, 0.0);
-            for (WeekSchedule week : entry.getValue()) {
-                double aux = hoursPerEmployee.get(employee);
-                for (PlannedFeature pf : week.getPlannedFeatures()) {
-                    totalHours += pf.getFeature().getDuration();
-                    aux += pf.getFeature().getDuration();
-                }
-                hoursPerEmployee.put(employee, aux);
-            }
+            // A feature spanning several weeks counts in each of them
+            double hours = entry.getValue().getSummedWeekHours();
+            hoursPerEmployee.put(entry.getKey(), hours);
+            totalHours += hours;
         }
 
         int nbEmployees = hoursPerEmployee.size();
@@ -69,22 +63,14 @@ public class SolutionEvaluator {
         NextReleaseProblem problem = solution.getProblem();
         double worstEndDate = problem.getNbWeeks() * problem.getNbHoursByWeek();
 
-        double unplannedFeatures = solution.getUndoneFeatures().size();
+        double unplannedFeatures = solution.getNbUndoneFeatures();
         double totalFeatures = problem.getFeatures().size();
         double penalty = worstEndDate/totalFeatures;
 
         double endDateQuality = Math.max(0.0, 1.0 - (penalty * unplannedFeatures) / worstEndDate);
-        double priorityQuality = 1.0 - priorityObjective(solution) / worstScore(problem);
+        double priorityQuality = 1.0 - priorityObjective(solution) / problem.getWorstScore();
         double distributionQuality = 1.0 - distributionObjective(solution);
 
         return (endDateQuality*0.3 + priorityQuality*0.4 + distributionQuality*0.3);
     }
-
-
-    /* --- PRIVATE AUX --- */
-    private double worstScore(NextReleaseProblem problem) {
-        return problem.getFeatures().stream()
-                .map(Feature::getPriority)
-                .reduce(0.0, (sum, next) -> sum += next.getScore(), Double::sum);
-    }
 }
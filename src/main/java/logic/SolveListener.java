@@ -0,0 +1,16 @@
+package logic;
+
+/**
+ * Follows the progress of a solve of {@link SolverNRP}
+ */
+public interface SolveListener {
+
+    /**
+     * Called on the thread of the solve, every few generations (see {@link SolverNRP#setListener(SolveListener, int)})
+     * @param generation the number of populations evaluated, a population being as many solutions as its size
+     * @param evaluations the number of solutions evaluated
+     * @param best the best solution evaluated so far. {@link SolverNRP} hands a copy of it, that the listener can keep,
+     *             cleared if it violates a constraint.
+     */
+    void onProgress(int generation, int evaluations, PlanningSolution best);
+}
@@ -0,0 +1,15 @@
+package logic;
+
+import org.uma.jmetal.util.JMetalException;
+
+/**
+ * Thrown through the algorithm by a {@link StoppableSolutionListEvaluator} to end a solve before its last iteration
+ */
+class SolveStoppedException extends JMetalException {
+
+    private static final long serialVersionUID = -8599433854403943288L; // Generated Id
+
+    SolveStoppedException(String message) {
+        super(message);
+    }
+}
@@ -3,12 +3,12 @@ package logic;
 import entities.Employee;
 import entities.Feature;
 import entities.PlannedFeature;
-import entities.Schedule;
 import entities.parameters.AlgorithmParameters;
 import logic.analytics.Analytics;
 import logic.analytics.EmployeeAnalytics;
 import logic.analytics.Utils;
 import logic.comparators.PlanningSolutionDominanceComparator;
+import logic.operators.PlanningBinaryTournamentSelection;
 import logic.operators.PlanningCrossoverOperator;
 import logic.operators.PlanningMutationOperator;
 import org.uma.jmetal.algorithm.Algorithm;
@@ -20,15 +20,19 @@ import org.uma.jmetal.algorithm.multiobjective.spea2.SPEA2Builder;
 import org.uma.jmetal.operator.CrossoverOperator;
 import org.uma.jmetal.operator.MutationOperator;
 import org.uma.jmetal.operator.SelectionOperator;
-import org.uma.jmetal.operator.impl.selection.BinaryTournamentSelection;
-import org.uma.jmetal.util.AlgorithmRunner;
+import org.uma.jmetal.util.JMetalLogger;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
 import org.uma.jmetal.util.neighborhood.impl.C9;
 import org.uma.jmetal.util.solutionattribute.impl.NumberOfViolatedConstraints;
 
-import java.util.HashMap;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 /**
@@ -68,6 +72,12 @@ public class SolverNRP {
 
     private Algorithm<List<PlanningSolution>> algorithm;
     private AlgorithmType algorithmType;
+    private DuplicateSkippingSolutionListEvaluator evaluator;
+    private SolveListener listener;
+    private int listenerGenerations;
+    private CancellationToken token;
+    private Instant deadline;
+    private StoppableSolutionListEvaluator stoppable;
 
 
     /**
@@ -87,6 +97,57 @@ public class SolverNRP {
     }
 
 
+    /**
+     * Sets the listener following the next solves
+     * @param listener null for none
+     * @param everyGenerations the number of generations between two calls of the listener
+     */
+    public void setListener(SolveListener listener, int everyGenerations) {
+        this.listener = listener;
+        this.listenerGenerations = everyGenerations;
+    }
+
+    /**
+     * Sets the token cancelling the next solves. A cancelled solve stops at its next evaluation, and returns the best
+     * solution found so far, postprocessed and cleared if it is not valid as any other.
+     * @param token null for none
+     */
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * Sets the time the next solves are stopped at, as if cancelled then
+     * @param deadline null for none
+     */
+    public void setDeadline(Instant deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return why the last solve was stopped before its last iteration (cancelled, deadline or interrupted), null if
+     * it was not
+     */
+    public String getStopReason() {
+        return stoppable == null ? null : stoppable.getStopReason();
+    }
+
+
+    // Evaluates the populations in parallel when the parameters ask for more than one thread, clones only once
+    private DuplicateSkippingSolutionListEvaluator createEvaluator(AlgorithmParameters parameters) {
+        SolutionListEvaluator<PlanningSolution> evaluator;
+        if (parameters.getNumberOfThreads() > 1)
+            evaluator = new ForkJoinSolutionListEvaluator<>(parameters.getNumberOfThreads());
+        else
+            evaluator = new SequentialSolutionListEvaluator<>();
+
+        EvaluationCache cache = null;
+        if (parameters.getEvaluationCacheSize() > 0)
+            cache = new EvaluationCache(parameters.getEvaluationCacheSize());
+
+        return new DuplicateSkippingSolutionListEvaluator(evaluator, cache);
+    }
+
     private Algorithm<List<PlanningSolution>> createAlgorithm(AlgorithmType algorithmType, NextReleaseProblem problem) {
         CrossoverOperator<PlanningSolution> crossover;
         MutationOperator<PlanningSolution> mutation;
@@ -94,18 +155,34 @@ public class SolverNRP {
 
         crossover = new PlanningCrossoverOperator(problem);
         mutation = new PlanningMutationOperator(problem);
-        selection = new BinaryTournamentSelection<>(new PlanningSolutionDominanceComparator());
+        selection = new PlanningBinaryTournamentSelection(problem, new PlanningSolutionDominanceComparator());
 
         AlgorithmParameters parameters = problem.getAlgorithmParameters();
         int nbIterations = parameters.getNumberOfIterations();
         int populationSize = parameters.getPopulationSize();
 
+        if (evaluator != null)
+            evaluator.shutdown();
+        evaluator = createEvaluator(parameters);
+
+        SolutionListEvaluator<PlanningSolution> listEvaluator = evaluator;
+        stoppable = null;
+        if (token != null || deadline != null) {
+            stoppable = new StoppableSolutionListEvaluator(evaluator, token,
+                    deadline == null ? 0 : Math.max(1, deadline.toEpochMilli()));
+            listEvaluator = stoppable;
+        }
+        if (listener != null)
+            listEvaluator = new ProgressSolutionListEvaluator(listEvaluator, this::progress,
+                    populationSize, listenerGenerations);
+
         switch (algorithmType) {
             case NSGAII:
                 return new NSGAIIBuilder<>(problem, crossover, mutation)
                         .setSelectionOperator(selection)
                         .setMaxIterations(nbIterations)
                         .setPopulationSize(populationSize)
+                        .setSolutionListEvaluator(listEvaluator)
                         .build();
             case MOCell:
                 return new MOCellBuilder<>(problem, crossover, mutation)
@@ -113,24 +190,26 @@ public class SolverNRP {
                         .setMaxEvaluations(nbIterations)
                         .setPopulationSize(populationSize)    // sqrt(populationSize) tiene que ser entero
                         .setNeighborhood(new C9<>((int) Math.sqrt(2500), (int) Math.sqrt(2500)))
+                        .setSolutionListEvaluator(listEvaluator)
                         .build();
             case SPEA2:
                 return new SPEA2Builder<>(problem, crossover, mutation)
                         .setSelectionOperator(selection)
                         .setMaxIterations(nbIterations)
                         .setPopulationSize(populationSize)
+                        .setSolutionListEvaluator(listEvaluator)
                         .build();
             case PESA2:
                 return new PESA2Builder<>(problem, crossover, mutation)
                         .setMaxEvaluations(nbIterations)
                         .setPopulationSize(populationSize)
+                        .setSolutionListEvaluator(listEvaluator)
                         .build();
             case SMSEMOA:
-                return new SMSEMOABuilder<>(problem, crossover, mutation)
+                return new PlanningSMSEMOA<>(new SMSEMOABuilder<>(problem, crossover, mutation)
                         .setSelectionOperator(selection)
                         .setMaxEvaluations(nbIterations)
-                        .setPopulationSize(populationSize)
-                        .build();
+                        .setPopulationSize(populationSize), listEvaluator);
             default:
                 return createAlgorithm(AlgorithmType.MOCell, problem);
         }
@@ -151,6 +230,9 @@ public class SolverNRP {
         else
             algorithmType = problem.getAlgorithmParameters().getAlgorithmType();
 
+        // Every solve starts again from the seed of the parameters
+        problem.setRandom(null);
+
         PlanningSolution solution = this.generatePlanningSolution(problem);
 
         solution.setAnalytics(new Analytics(solution));
@@ -169,7 +251,8 @@ public class SolverNRP {
     private void postprocess(PlanningSolution solution) {
         Utils utils = new Utils(solution);
         NextReleaseProblem problem = solution.getProblem();
-        Map<Employee, EmployeeAnalytics> employeesInfo = new HashMap<>();
+        // The employees are the interned instances of the problem
+        Map<Employee, EmployeeAnalytics> employeesInfo = new IdentityHashMap<>();
 
         for (Employee e : solution.getProblem().getEmployees())
             employeesInfo.put(e, new EmployeeAnalytics(e, solution));
@@ -177,11 +260,8 @@ public class SolverNRP {
         for (Feature f : solution.getUndoneFeatures()) {
 
             // Skip any frozen feature left unplanned because it would likely generate an invalid solution
-            if (problem.getPreviousSolution() != null) {
-                PlannedFeature pf = problem.getPreviousSolution().findJobOf(f);
-                if (pf != null && pf.isFrozen())
-                    continue;
-            }
+            if (problem.getPreviousPlan() != null && problem.getPreviousPlan().isFrozen(f))
+                continue;
 
             if (utils.allPrecedencesArePlanned(f)) {
                 List<Employee> doableBy = utils.doableBy(f).stream()
@@ -199,13 +279,8 @@ public class SolverNRP {
 
                     PlannedFeature pf = new PlannedFeature(f, e);
                     utils.computeHours(pf);
-                    Schedule s = solution.getEmployeesPlanning().get(e);
-
-                    s.forceSchedule(pf);
 
-                    // Don't forget to update the solution's internal state
-                    solution.getPlannedFeatures().add(pf);
-                    solution.getUndoneFeatures().remove(f);
+                    solution.forceSchedule(pf);
                 }
             }
         }
@@ -228,16 +303,53 @@ public class SolverNRP {
     private PlanningSolution generatePlanningSolution(NextReleaseProblem problem) {
 
         algorithm = createAlgorithm(algorithmType, problem);
-        new AlgorithmRunner.Executor(algorithm).execute();
+        try {
+            // On the calling thread rather than on one of AlgorithmRunner, for a stop to end the solve
+            algorithm.run();
+        } catch (SolveStoppedException e) {
+            return stoppedSolution(problem);
+        } finally {
+            evaluator.shutdown();
+        }
 
         List<PlanningSolution> result = algorithm.getResult();
         PlanningSolution bestSolution = PopulationFilter.getBestSolutions(result).iterator().next();
 
+        logEvaluations();
         printQuality(result, bestSolution);
 
         return bestSolution;
     }
 
+    // The best solution found by a stopped solve, an empty one if it was stopped before the end of its first evaluation
+    private PlanningSolution stoppedSolution(NextReleaseProblem problem) {
+        JMetalLogger.logger.log(Level.FINE, "Solve stopped ({0}) after {1} evaluations",
+                new Object[] {stoppable.getStopReason(), stoppable.getEvaluations()});
+
+        PlanningSolution best = stoppable.getBest();
+        if (best != null)
+            return new PlanningSolution(best);
+
+        PlanningSolution empty = new PlanningSolution(problem, Collections.<PlannedFeature>emptyList());
+        problem.evaluate(empty);
+        problem.evaluateConstraints(empty);
+        return empty;
+    }
+
+    // Hands a cleared copy of the best solution so far to the listener
+    private void progress(int generation, int evaluations, PlanningSolution best) {
+        PlanningSolution solution = new PlanningSolution(best);
+        clearSolutionIfNotValid(solution);
+        listener.onProgress(generation, evaluations, solution);
+    }
+
+    private void logEvaluations() {
+        EvaluationCache cache = evaluator.getCache();
+        if (cache != null)
+            JMetalLogger.logger.log(Level.FINE, "Evaluation cache: {0} hits, {1} misses, {2} clones skipped",
+                    new Object[] {cache.getHits(), cache.getMisses(), evaluator.getNbSkipped()});
+    }
+
     private void printQuality(List<PlanningSolution> solutions, PlanningSolution best) {
         SolutionQuality solutionQuality = new SolutionQuality();
         double totalQuality = 0.0;
@@ -0,0 +1,161 @@
+package logic;
+
+import logic.comparators.PlanningSolutionDominanceComparator;
+import org.uma.jmetal.problem.ConstrainedProblem;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.JMetalException;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Evaluates the solutions with another {@link SolutionListEvaluator}, stopping the solve once its token is cancelled,
+ * its deadline is passed or its thread is interrupted, and keeping the best solution evaluated so far to be its result.
+ * <p>
+ * The algorithms have no way to be stopped, but they all evaluate their new solutions through their evaluator, so the
+ * solve is stopped by throwing a {@link SolveStoppedException} through the algorithm before evaluating a population,
+ * which is the boundary between two generations. Within a population, every solution is checked before it is
+ * evaluated, and the rest are skipped once the solve is stopped, so that a long evaluation does not delay the stop by
+ * more than one solution per thread. The best solution is the first one according to
+ * {@link PlanningSolutionDominanceComparator}, a feasible one whenever one was found, out of the wholly evaluated
+ * populations.
+ */
+public class StoppableSolutionListEvaluator implements SolutionListEvaluator<PlanningSolution> {
+
+    private static final long serialVersionUID = 1093269506981274877L; // Generated Id
+
+    private final SolutionListEvaluator<PlanningSolution> evaluator;
+    private final CancellationToken token;
+    private final long deadlineMillis;
+    private final Comparator<PlanningSolution> comparator = new PlanningSolutionDominanceComparator();
+
+    private PlanningSolution best;
+    private int evaluations = 0;
+    private volatile String stopReason;
+
+
+    /* --- CONSTRUCTORS --- */
+
+    /**
+     * @param token cancels the solve, null for none
+     * @param deadlineMillis the time the solve is stopped at, in milliseconds since the epoch, 0 for none
+     */
+    public StoppableSolutionListEvaluator(SolutionListEvaluator<PlanningSolution> evaluator, CancellationToken token,
+                                          long deadlineMillis) {
+        this.evaluator = evaluator;
+        this.token = token;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+
+    /* --- EVALUATION --- */
+
+    @Override
+    public List<PlanningSolution> evaluate(List<PlanningSolution> solutionList, Problem<PlanningSolution> problem)
+            throws JMetalException {
+        if (Thread.currentThread().isInterrupted())
+            stopReason = "interrupted";
+        checkStop();
+
+        evaluator.evaluate(solutionList, new StoppableProblem(problem));
+        checkStop();        // Some solutions were skipped
+
+        for (PlanningSolution solution : solutionList)
+            if (best == null || comparator.compare(solution, best) < 0)
+                best = solution;
+        evaluations += solutionList.size();
+
+        return solutionList;
+    }
+
+    @Override
+    public void shutdown() {
+        evaluator.shutdown();
+    }
+
+    /**
+     * @return the best solution of the wholly evaluated populations, null before the first one
+     */
+    public PlanningSolution getBest() {
+        return best;
+    }
+
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return why the solve was stopped (cancelled, deadline or interrupted), null if it was not
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+
+    /* --- PRIVATE --- */
+
+    // Called by the evaluating threads before every solution
+    private boolean shouldStop() {
+        if (stopReason != null)
+            return true;
+        if (token != null && token.isCancelled())
+            stopReason = "cancelled";
+        else if (deadlineMillis > 0 && System.currentTimeMillis() >= deadlineMillis)
+            stopReason = "deadline";
+        return stopReason != null;
+    }
+
+    private void checkStop() {
+        if (shouldStop())
+            throw new SolveStoppedException("The solve was stopped: " + stopReason);
+    }
+
+    // The problem of the evaluator, skipping the solutions once the solve is stopped
+    private class StoppableProblem implements ConstrainedProblem<PlanningSolution> {
+        private static final long serialVersionUID = 4658930261070156096L; // Generated Id
+        private final Problem<PlanningSolution> problem;
+
+        StoppableProblem(Problem<PlanningSolution> problem) {
+            this.problem = problem;
+        }
+
+        @Override
+        public void evaluate(PlanningSolution solution) {
+            if (!shouldStop())
+                problem.evaluate(solution);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void evaluateConstraints(PlanningSolution solution) {
+            if (!shouldStop() && problem instanceof ConstrainedProblem)
+                ((ConstrainedProblem<PlanningSolution>) problem).evaluateConstraints(solution);
+        }
+
+        @Override
+        public int getNumberOfVariables() {
+            return problem.getNumberOfVariables();
+        }
+
+        @Override
+        public int getNumberOfObjectives() {
+            return problem.getNumberOfObjectives();
+        }
+
+        @Override
+        public int getNumberOfConstraints() {
+            return problem.getNumberOfConstraints();
+        }
+
+        @Override
+        public String getName() {
+            return problem.getName();
+        }
+
+        @Override
+        public PlanningSolution createSolution() {
+            return problem.createSolution();
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class Analytics {
     private List<Feature> doneFeatures = new ArrayList<>();
     private List<Feature> undoneFeatures;
 
-    private Map<Employee, EmployeeAnalytics> employeesInfo = new HashMap<>();
+    private Map<Employee, EmployeeAnalytics> employeesInfo = new LinkedHashMap<>();  // In the order of the problem
     private Map<Feature, FeatureAnalytics> featuresInfo = new HashMap<>();
 
     private List<String> info = new ArrayList<>();
@@ -94,7 +94,7 @@ public class Analytics {
                     info.add(String.format(doableMessage, f.getName(), doableBy));
             }
 
-            if (problem.getSkilledEmployees(f.getRequiredSkills()).isEmpty())
+            if (problem.getSkilledEmployees(f).isEmpty())
                 info.add(String.format(skillMessage, f.getName()));
         }
     }
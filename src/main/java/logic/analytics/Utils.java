@@ -6,7 +6,6 @@ import logic.PlanningSolution;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Class containing some frequently needed methods involving a solution and/or a problem.
@@ -28,7 +27,7 @@ public class Utils {
     public List<Feature> unplannedDependenciesOf(Feature f) {
         List<Feature> features = new ArrayList<>();
         for (Feature prev : f.getPreviousFeatures())
-            if (solution.findPlannedFeature(prev) == null)
+            if (!solution.isAlreadyPlanned(prev))
                 features.add(prev);
 
         return features;
@@ -39,9 +38,9 @@ public class Utils {
         Feature feature = pf.getFeature();
         // newBeginHour = maximum end hour of all previous features
         for (Feature previousFeature : feature.getPreviousFeatures()) {
-            PlannedFeature previousPlannedFeature = solution.findPlannedFeature(previousFeature);
-            if (previousPlannedFeature != null) {
-                newBeginHour = Math.max(newBeginHour, previousPlannedFeature.getEndHour());
+            double previousEndHour = solution.getEndHour(previousFeature);
+            if (!Double.isNaN(previousEndHour)) {
+                newBeginHour = Math.max(newBeginHour, previousEndHour);
             }
         }
 
@@ -58,17 +57,13 @@ public class Utils {
     }
 
     public List<Employee> doableBy(Feature f) {
-        return problem.getEmployees().stream()
-                .filter(e -> e.getSkills().containsAll(f.getRequiredSkills()))
-                .collect(Collectors.toList());
+        return problem.getSkilledEmployees(f);
     }
 
 
     /* --- EMPLOYEES --- */
     public List<Feature> doableFeatures(Employee e) {
-        return problem.getFeatures().stream()
-                .filter(f -> e.getSkills().containsAll(f.getRequiredSkills()))
-                .collect(Collectors.toList());
+        return problem.getDoableFeatures(e);
     }
 
     public double startHour(Feature f) {
@@ -103,8 +98,8 @@ public class Utils {
         // Get the end hour of the nearest precedence
         double endHour = 0.0;
         for (Feature dep : f.getPreviousFeatures()) {
-            PlannedFeature pf = solution.findPlannedFeature(dep);
-            if (pf != null) endHour = Math.max(endHour, pf.getEndHour());
+            double depEndHour = solution.getEndHour(dep);
+            if (!Double.isNaN(depEndHour)) endHour = Math.max(endHour, depEndHour);
         }
 
         double employeeEndHour = e.getWeekAvailability() * problem.getNbWeeks();
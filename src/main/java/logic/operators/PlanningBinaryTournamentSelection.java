@@ -0,0 +1,65 @@
+package logic.operators;
+
+import logic.NextReleaseProblem;
+import logic.PlanningSolution;
+import logic.RandomSource;
+import org.uma.jmetal.operator.SelectionOperator;
+import org.uma.jmetal.util.JMetalException;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The binary tournament of {@link org.uma.jmetal.operator.impl.selection.BinaryTournamentSelection}, drawing its
+ * random numbers from the {@link RandomSource} of the problem instead of the process-wide
+ * {@link org.uma.jmetal.util.pseudorandom.JMetalRandom}.
+ */
+public class PlanningBinaryTournamentSelection implements SelectionOperator<List<PlanningSolution>, PlanningSolution> {
+
+	/**
+	 * Random generator
+	 */
+	private RandomSource randomGenerator;
+
+	/**
+	 * The comparator deciding the winner of a tournament
+	 */
+	private Comparator<PlanningSolution> comparator;
+
+
+	/* --- Constructors --- */
+
+	/**
+	 * Constructor
+	 * @param problem the next release problem
+	 * @param comparator the comparator deciding the winner of a tournament
+	 */
+	public PlanningBinaryTournamentSelection(NextReleaseProblem problem, Comparator<PlanningSolution> comparator) {
+		this.randomGenerator = problem.getRandom();
+		this.comparator = comparator;
+	}
+
+
+	/* --- Methods --- */
+
+	@Override
+	public PlanningSolution execute(List<PlanningSolution> solutions) {
+		if (null == solutions) {
+			throw new JMetalException("The solution list is null");
+		} else if (solutions.isEmpty()) {
+			throw new JMetalException("The solution list is empty");
+		} else if (solutions.size() == 1) {
+			return solutions.get(0);
+		}
+
+		PlanningSolution solution1 = solutions.get(randomGenerator.nextInt(0, solutions.size() - 1));
+		PlanningSolution solution2 = solutions.get(randomGenerator.nextInt(0, solutions.size() - 1));
+
+		int flag = comparator.compare(solution1, solution2);
+		if (flag < 0)
+			return solution1;
+		if (flag > 0)
+			return solution2;
+		return randomGenerator.nextDouble() < 0.5 ? solution1 : solution2;
+	}
+}
@@ -3,13 +3,12 @@
  */
 package logic.operators;
 
-import entities.PlannedFeature;
 import entities.parameters.AlgorithmParameters;
 import logic.NextReleaseProblem;
 import logic.PlanningSolution;
+import logic.RandomSource;
 import org.uma.jmetal.operator.CrossoverOperator;
 import org.uma.jmetal.util.JMetalException;
-import org.uma.jmetal.util.pseudorandom.JMetalRandom;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,7 +30,7 @@ public class PlanningCrossoverOperator implements CrossoverOperator<PlanningSolu
 	/**
 	 * Random Generator
 	 */
-	private JMetalRandom randomGenerator ;
+	private RandomSource randomGenerator;
 	
 	/**
 	 * The next release problem
@@ -62,7 +61,7 @@ public class PlanningCrossoverOperator implements CrossoverOperator<PlanningSolu
 
 		this.crossoverProbability = crossoverProbability;
 		this.problem = problem;
-		randomGenerator = JMetalRandom.getInstance() ;
+		randomGenerator = problem.getRandom();
 	}
 
 	
@@ -101,19 +100,17 @@ public class PlanningCrossoverOperator implements CrossoverOperator<PlanningSolu
         for (PlanningSolution child : offspring) {
             int i = 0;
             for (; i < minSize; ++i) {
-                PlannedFeature pf;
-                if (randomGenerator.nextDouble() < 0.5)
-                    pf = shorterParent.getPlannedFeatures().get(i);
-                else
-                    pf = largerParent.getPlannedFeatures().get(i);
-
-                child.scheduleAtTheEnd(pf.getFeature(), pf.getEmployee());
+                PlanningSolution parent = randomGenerator.nextDouble() < 0.5 ? shorterParent : largerParent;
+                child.scheduleAtTheEnd(parent.getFeatureId(i), parent.getEmployeeId(i));
             }
-            List<PlannedFeature> uncrossed = largerParent.getEndPlannedFeaturesSubListCopy(i);
-            for (PlannedFeature pf : uncrossed) {
+            for (; i < largerParent.size(); ++i) {
                 if (randomGenerator.nextDouble() < 0.5)
-                    child.scheduleAtTheEnd(pf.getFeature(), pf.getEmployee());
+                    child.scheduleAtTheEnd(largerParent.getFeatureId(i), largerParent.getEmployeeId(i));
             }
+
+            // The child is evaluated from the first position where it differs from the closest parent
+            child.reuseEvaluation(shorterParent);
+            child.reuseEvaluation(largerParent);
         }
 
 
@@ -3,17 +3,13 @@
  */
 package logic.operators;
 
-import entities.Employee;
-import entities.PlannedFeature;
 import entities.parameters.AlgorithmParameters;
+import logic.CompiledProblem;
 import logic.NextReleaseProblem;
 import logic.PlanningSolution;
+import logic.RandomSource;
 import org.uma.jmetal.operator.MutationOperator;
 import org.uma.jmetal.util.JMetalException;
-import org.uma.jmetal.util.pseudorandom.JMetalRandom;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * @author Vavou
@@ -36,7 +32,7 @@ public class PlanningMutationOperator implements MutationOperator<PlanningSoluti
 	/**
 	 * Random generator
 	 */
-	private JMetalRandom randomGenerator;
+	private RandomSource randomGenerator;
 
 	/**
 	 * The Next Release Problem which contents the employees and tasks list
@@ -77,7 +73,7 @@ public class PlanningMutationOperator implements MutationOperator<PlanningSoluti
 		this.numberOfTasks = problem.getFeatures().size();
 		this.mutationProbability = mutationProbability;
 		this.problem = problem;
-		randomGenerator = JMetalRandom.getInstance() ;
+		randomGenerator = problem.getRandom();
 	}
 	
 	
@@ -89,12 +85,11 @@ public class PlanningMutationOperator implements MutationOperator<PlanningSoluti
 		
 		for (int i = 0 ; i < nbPlannedTasks ; i++) {
 			if (doMutation()) { // If we have to do a mutation
-				PlannedFeature taskToMutate = solution.getPlannedFeature(i);
 				if (randomGenerator.nextDouble() < 0.5) {
-					changeEmployee(taskToMutate);
+					changeEmployee(solution, i);
 				}
 				else {
-					changeTask(solution, taskToMutate, i);
+					changeTask(solution, i);
 				}
 			}
 		}
@@ -136,10 +131,9 @@ public class PlanningMutationOperator implements MutationOperator<PlanningSoluti
 	 * Replaces a task by another one.
 	 * It can be a planned or an unplanned task, it updates the unplannedTasks list in the second case
 	 * @param solution The solution to mutate
-	 * @param taskToChange The planned task to modify
 	 * @param taskPosition The position of the task to modify in the planning (the plannedTask list)
 	 */
-	private void changeTask(PlanningSolution solution, PlannedFeature taskToChange, int taskPosition) {
+	private void changeTask(PlanningSolution solution, int taskPosition) {
 		int randomPosition = randomGenerator.nextInt(0, numberOfTasks);
 		if (randomPosition < solution.size() - 1) { // If the random selected task is already planned then exchange with the current
 			if (taskPosition == randomPosition) { 
@@ -149,20 +143,33 @@ public class PlanningMutationOperator implements MutationOperator<PlanningSoluti
 		}
 		else { // If the random selected task is not yet planned, let's do it
 			// Why would you unschedule it if you're saying it's not planned?
-			solution.unschedule(taskToChange);
+			solution.unschedule(solution.getPlannedFeature(taskPosition));
 			solution.scheduleRandomFeature(taskPosition);
 		}
 	}
 	
 	/**
 	 * Change the employee of a planned task by a random one
-	 * @param taskToChange the planned task to modify
+	 * @param solution The solution to mutate
+	 * @param taskPosition The position of the task to modify in the planning
 	 */
-	private void changeEmployee(PlannedFeature taskToChange) {
-		List<Employee> skilledEmployees = new ArrayList<>(problem.getSkilledEmployees(taskToChange.getFeature().getRequiredSkills()));
-		skilledEmployees.remove(taskToChange.getEmployee());
-		if (skilledEmployees.size() > 0) {
-			taskToChange.setEmployee(skilledEmployees.get(randomGenerator.nextInt(0, skilledEmployees.size()-1)));
+	private void changeEmployee(PlanningSolution solution, int taskPosition) {
+		CompiledProblem compiled = problem.getCompiledProblem();
+		int[] skilledEmployees = compiled.getEligibleEmployees(solution.getFeatureId(taskPosition));
+
+		// The current employee is not a candidate
+		int current = solution.getEmployeeId(taskPosition);
+		int currentIndex = -1;
+		for (int i = 0; i < skilledEmployees.length && currentIndex < 0; ++i)
+			if (skilledEmployees[i] == current)
+				currentIndex = i;
+
+		int nbCandidates = currentIndex < 0 ? skilledEmployees.length : skilledEmployees.length - 1;
+		if (nbCandidates > 0) {
+			int chosen = randomGenerator.nextInt(0, nbCandidates - 1);
+			if (currentIndex >= 0 && chosen >= currentIndex)
+				++chosen;
+			solution.changeEmployee(taskPosition, compiled.getEmployee(skilledEmployees[chosen]));
 		}
 	}
 }
@@ -0,0 +1,93 @@
+import entities.Employee;
+import entities.Feature;
+import entities.PriorityLevel;
+import entities.Skill;
+import logic.CompiledProblem;
+import logic.SkillIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the ids and the tables of a {@link CompiledProblem}
+ */
+public class CompiledProblemTest {
+
+    /*   -------------
+        | AUX METHODS |
+         -------------
+     */
+    private static Feature feature(String name, Feature... previousFeatures) {
+        return new Feature(name, PriorityLevel.THREE, 10.0, new ArrayList<>(Arrays.asList(previousFeatures)),
+                new ArrayList<>());
+    }
+
+    private static CompiledProblem compile(Feature... features) {
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee("E", 40.0, new ArrayList<>()));
+        return new CompiledProblem(Arrays.asList(features), new SkillIndex(employees));
+    }
+
+    // Checks the dependencies of feature f, in the order of its previous features
+    private static void assertPrevious(CompiledProblem compiled, int f, int... expected) {
+        int[] actual = new int[compiled.getPreviousEnd(f) - compiled.getPreviousBegin(f)];
+        for (int k = compiled.getPreviousBegin(f); k < compiled.getPreviousEnd(f); ++k)
+            actual[k - compiled.getPreviousBegin(f)] = compiled.getPrevious(k);
+        Assert.assertArrayEquals(expected, actual);
+    }
+
+    // Checks the features depending on feature f, in the order of their ids
+    private static void assertNext(CompiledProblem compiled, int f, int... expected) {
+        int[] actual = new int[compiled.getNextEnd(f) - compiled.getNextBegin(f)];
+        for (int k = compiled.getNextBegin(f); k < compiled.getNextEnd(f); ++k)
+            actual[k - compiled.getNextBegin(f)] = compiled.getNext(k);
+        Assert.assertArrayEquals(expected, actual);
+    }
+
+    /*   -------
+        | TESTS |
+         -------
+     */
+    @Test
+    public void dependencyOutsideTheProblemIsUnknownAndHasNoNextFeatures() {
+        Feature outside = feature("Outside");
+        Feature a = feature("A");
+        Feature b = feature("B", a, outside);
+        Feature c = feature("C", outside);
+        CompiledProblem compiled = compile(a, b, c);
+
+        Assert.assertEquals(CompiledProblem.UNKNOWN, compiled.featureId(outside));
+        Assert.assertEquals(3, compiled.getNbPrecedences());
+        assertPrevious(compiled, 0);
+        assertPrevious(compiled, 1, 0, CompiledProblem.UNKNOWN);
+        assertPrevious(compiled, 2, CompiledProblem.UNKNOWN);
+
+        // The unknown dependencies are not part of the reversed edges
+        assertNext(compiled, 0, 1);
+        assertNext(compiled, 1);
+        assertNext(compiled, 2);
+        Assert.assertEquals(0, compiled.getNextBegin(0));
+        Assert.assertEquals(1, compiled.getNextEnd(2));
+    }
+
+    @Test
+    public void selfDependencyIsItsOwnPreviousAndNextFeature() {
+        Feature a = feature("A");
+        Feature b = feature("B", a);
+        b.getPreviousFeatures().add(0, b);
+        Feature c = feature("C", b);
+        CompiledProblem compiled = compile(a, b, c);
+
+        Assert.assertEquals(3, compiled.getNbPrecedences());
+        assertPrevious(compiled, 0);
+        assertPrevious(compiled, 1, 1, 0);
+        assertPrevious(compiled, 2, 1);
+
+        assertNext(compiled, 0, 1);
+        assertNext(compiled, 1, 1, 2);
+        assertNext(compiled, 2);
+    }
+}
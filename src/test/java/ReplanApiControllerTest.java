@@ -1,15 +1,51 @@
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import entities.Employee;
 import entities.Feature;
+import entities.PlannedFeature;
 import entities.Skill;
+import entities.parameters.AlgorithmParameters;
+import io.swagger.api.AdmissionController;
+import io.swagger.api.AdmissionRejectedException;
+import io.swagger.api.InFlightSolves;
+import io.swagger.api.ProgressStream;
 import io.swagger.api.ReplanGson;
 import io.swagger.api.ReplanApiController;
+import io.swagger.api.ResultCache;
+import io.swagger.api.SolutionWriter;
+import io.swagger.api.SolverJobs;
+import io.swagger.model.ApiNextReleaseProblem;
 import io.swagger.model.ApiPlanningSolution;
+import logic.NextReleaseProblem;
+import logic.SolverNRP;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -59,4 +95,593 @@ public class ReplanApiControllerTest {
 
         ApiPlanningSolution solution = gson.fromJson(response, ApiPlanningSolution.class);
     }
+
+    @Test
+    public void randomProblemWithReferencedEntities() {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(5);
+        List<Employee> resources = random.employeeList(10);
+
+        random.mix(features, skills, resources);
+
+        MockHttpServletRequest request = mocker.referencesRequest(4, 40.0, features, resources);
+
+        ResponseEntity<String> response = apiController.replan(request);
+
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        ApiPlanningSolution solution = gson.fromJson(response.getBody(), ApiPlanningSolution.class);
+    }
+
+    @Test
+    public void referencedEntitiesAreResolvedById() {
+        MockHttpServletRequest request = mocker.request(ReplanGson.REFERENCES_CONTENT_TYPE, "{\"nbWeeks\":3,\"hoursPerWeek\":40.0,\"skills\":[{\"id\":1,\"name\":\"Java\"}],\"features\":[{\"id\":10,\"name\":\"A\",\"duration\":\"20.0\",\"priority\":3,\"required_skills\":[1],\"depends_on\":[11]},{\"id\":11,\"name\":\"B\",\"duration\":10.0,\"priority\":{\"level\":1,\"score\":1},\"required_skills\":[1]}],\"resources\":[{\"id\":\"r\",\"name\":\"Ann\",\"availability\":36.0,\"skills\":[1]}],\"previousSolution\":{\"jobs\":[{\"feature\":11,\"resource\":\"r\",\"beginHour\":0.0,\"endHour\":10.0}]}}");
+
+        ResponseEntity<String> response = apiController.replan(request);
+
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        ApiPlanningSolution solution = gson.fromJson(response.getBody(), ApiPlanningSolution.class);
+        Assert.assertEquals(2, solution.getJobs().size());
+        for (PlannedFeature job : solution.getJobs()) {
+            Assert.assertEquals("Ann", job.getEmployee().getName());
+            Assert.assertEquals("Java", job.getFeature().getRequiredSkills().get(0).getName());
+        }
+    }
+
+    @Test
+    public void unknownReferenceIsABadRequest() {
+        MockHttpServletRequest request = mocker.request(ReplanGson.REFERENCES_CONTENT_TYPE, "{\"nbWeeks\":3,\"hoursPerWeek\":40.0,\"features\":[{\"name\":\"A\",\"duration\":20.0,\"priority\":3,\"depends_on\":[\"Z\"]}],\"resources\":[]}");
+
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, apiController.replan(request).getStatusCode());
+    }
+
+    @Test
+    public void compactViewReferencesTheEntitiesByName() {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(5);
+        List<Employee> resources = random.employeeList(10);
+
+        random.mix(features, skills, resources);
+
+        MockHttpServletRequest request = mocker.request(4, 40.0, features, resources);
+        request.setParameter("view", "compact");
+
+        ResponseEntity<String> response = apiController.replan(request);
+
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonObject solution = gson.fromJson(response.getBody(), JsonObject.class);
+        for (JsonElement job : solution.getAsJsonArray("jobs")) {
+            Assert.assertTrue(job.getAsJsonObject().get("feature").isJsonPrimitive());
+            Assert.assertTrue(job.getAsJsonObject().get("resource").isJsonPrimitive());
+        }
+    }
+
+    @Test
+    public void dictionaryViewIsWrittenToTheResponse() throws Exception {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(5);
+        List<Employee> resources = random.employeeList(10);
+
+        random.mix(features, skills, resources);
+
+        MockHttpServletRequest request = mocker.request(4, 40.0, features, resources);
+        request.setParameter("view", "dictionary");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Assert.assertNull(apiController.replan(request, response));
+        Assert.assertEquals(HttpStatus.OK.value(), response.getStatus());
+
+        JsonObject solution = gson.fromJson(response.getContentAsString(), JsonObject.class);
+        Assert.assertEquals(solution.getAsJsonArray("jobs").size() > 0, solution.getAsJsonArray("features").size() > 0);
+        Assert.assertTrue(solution.getAsJsonArray("features").size() <= features.size());
+    }
+
+    @Test
+    public void clientLeavingWhileThePlanningIsWrittenGetsNoAnswer() throws Exception {
+        ReplanApiController controller = new ReplanApiController();
+        controller.setResultCache(new ResultCache(0, 0));
+        HttpServletResponse response = new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        throw new IOException("Broken pipe");
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                    }
+                };
+            }
+        };
+
+        List<Skill> skills = random.skillList(3);
+        List<Feature> features = random.featureList(5);
+        List<Employee> resources = random.employeeList(3);
+        random.mix(features, skills, resources);
+
+        // Not a 500 entity for a response that is already committed
+        Assert.assertNull(controller.replan(mocker.request(4, 40.0, features, resources), response));
+    }
+
+    @Test
+    public void unknownViewIsABadRequest() {
+        MockHttpServletRequest request = mocker.request(4, 40.0, random.featureList(1), random.employeeList(1));
+        request.setParameter("view", "everything");
+
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, apiController.replan(request).getStatusCode());
+    }
+
+    @Test
+    public void tooLargeBodyIsRejected() {
+        ReplanApiController controller = new ReplanApiController();
+        controller.setMaxBodySize(100);
+
+        MockHttpServletRequest request = mocker.request(4, 40.0, random.featureList(5), random.employeeList(5));
+
+        Assert.assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, controller.replan(request).getStatusCode());
+    }
+
+    @Test
+    public void invalidJsonIsABadRequest() {
+        Assert.assertEquals(HttpStatus.BAD_REQUEST,
+                apiController.replan(mocker.request("{\"nbWeeks\": 3, \"features\": [")).getStatusCode());
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, apiController.replan(mocker.request("")).getStatusCode());
+    }
+
+    @Test
+    public void modelAdaptersReadAndWriteTheSameJsonAsReflection() throws Exception {
+        Gson reflectiveGson = ReplanGson.getReflectiveGson();
+        for (String dataset : new String[]{"ATOS - Release 7.txt", "SEnerCon - Release 2.txt"}) {
+            String json = new String(Files.readAllBytes(Paths.get("src/test/datasets", dataset)));
+
+            ApiNextReleaseProblem reflected = reflectiveGson.fromJson(json, ApiNextReleaseProblem.class);
+            ApiNextReleaseProblem adapted = gson.fromJson(json, ApiNextReleaseProblem.class);
+
+            Assert.assertEquals(reflectiveGson.toJson(reflected), gson.toJson(adapted));
+            Assert.assertEquals(reflectiveGson.toJson(reflected), reflectiveGson.toJson(adapted));
+        }
+
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(5);
+        List<Employee> resources = random.employeeList(10);
+        random.mix(features, skills, resources);
+        String response = apiController.replan(mocker.request(4, 40.0, features, resources)).getBody();
+
+        ApiPlanningSolution solution = reflectiveGson.fromJson(response, ApiPlanningSolution.class);
+        Assert.assertEquals(reflectiveGson.toJson(solution), gson.toJson(gson.fromJson(response, ApiPlanningSolution.class)));
+    }
+
+    @Test
+    public void jobIsSolvedInTheBackground() throws Exception {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(5);
+        List<Employee> resources = random.employeeList(10);
+        random.mix(features, skills, resources);
+
+        ResponseEntity<String> submitted = apiController.submitJob(mocker.request(4, 40.0, features, resources));
+        Assert.assertEquals(HttpStatus.ACCEPTED, submitted.getStatusCode());
+        String id = gson.fromJson(submitted.getBody(), JsonObject.class).get("id").getAsString();
+        Assert.assertTrue(submitted.getHeaders().getLocation().toString().endsWith(id));
+
+        String status = null;
+        for (int i = 0; i < 600 && !"DONE".equals(status); ++i) {
+            Thread.sleep(100);
+            ResponseEntity<String> job = apiController.getJob(id);
+            Assert.assertEquals(HttpStatus.OK, job.getStatusCode());
+            status = gson.fromJson(job.getBody(), JsonObject.class).get("status").getAsString();
+            Assert.assertNotEquals("FAILED", status);
+        }
+        Assert.assertEquals("DONE", status);
+
+        ResponseEntity<String> result = apiController.getJobResult(id, new MockHttpServletRequest(), null);
+        Assert.assertEquals(HttpStatus.OK, result.getStatusCode());
+        ApiPlanningSolution solution = gson.fromJson(result.getBody(), ApiPlanningSolution.class);
+        Assert.assertNotNull(solution.getJobs());
+    }
+
+    @Test
+    public void cancelledJobHasNoResult() {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(20);
+        List<Employee> resources = random.employeeList(10);
+        random.mix(features, skills, resources);
+
+        ResponseEntity<String> submitted = apiController.submitJob(mocker.request(4, 40.0, features, resources));
+        String id = gson.fromJson(submitted.getBody(), JsonObject.class).get("id").getAsString();
+
+        ResponseEntity<String> cancelled = apiController.cancelJob(id);
+        Assert.assertEquals(HttpStatus.OK, cancelled.getStatusCode());
+        Assert.assertEquals("CANCELLED", gson.fromJson(cancelled.getBody(), JsonObject.class).get("status").getAsString());
+        Assert.assertEquals(HttpStatus.CONFLICT,
+                apiController.getJobResult(id, new MockHttpServletRequest(), null).getStatusCode());
+    }
+
+    @Test
+    public void cancelledJobStopsItsSolve() throws Exception {
+        ReplanApiController controller = new ReplanApiController();
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(20);
+        List<Employee> resources = random.employeeList(10);
+        random.mix(features, skills, resources);
+
+        ApiNextReleaseProblem problem = new ApiNextReleaseProblem(4, 40.0, features, resources);
+        problem.setAlgorithmParameters(new AlgorithmParameters(SolverNRP.AlgorithmType.SPEA2));
+        problem.getAlgorithmParameters().setAlgorithmType(SolverNRP.AlgorithmType.SPEA2);
+        problem.getAlgorithmParameters().setNumberOfIterations(Integer.MAX_VALUE / 1000);
+        ResponseEntity<String> endless = controller.submitJob(mocker.request(gson.toJson(problem)));
+        String id = gson.fromJson(endless.getBody(), JsonObject.class).get("id").getAsString();
+        for (int i = 0; i < 100 && !gson.fromJson(controller.getJob(id).getBody(), JsonObject.class)
+                .get("status").getAsString().equals("RUNNING"); ++i)
+            Thread.sleep(10);
+        controller.cancelJob(id);
+
+        // The only solver thread is free again
+        ResponseEntity<String> next = controller.submitJob(mocker.request(4, 40.0, features.subList(0, 3), resources));
+        id = gson.fromJson(next.getBody(), JsonObject.class).get("id").getAsString();
+        String status = null;
+        for (int i = 0; i < 600 && !"DONE".equals(status); ++i) {
+            Thread.sleep(100);
+            status = gson.fromJson(controller.getJob(id).getBody(), JsonObject.class).get("status").getAsString();
+        }
+        Assert.assertEquals("DONE", status);
+        controller.shutdown();
+    }
+
+    @Test
+    public void unknownJobIsNotFound() {
+        Assert.assertEquals(HttpStatus.NOT_FOUND, apiController.getJob("unknown").getStatusCode());
+        Assert.assertEquals(HttpStatus.NOT_FOUND, apiController.cancelJob("unknown").getStatusCode());
+        Assert.assertEquals(HttpStatus.NOT_FOUND,
+                apiController.getJobResult("unknown", new MockHttpServletRequest(), null).getStatusCode());
+        Assert.assertEquals(HttpStatus.BAD_REQUEST,
+                apiController.submitJob(mocker.request("{\"nbWeeks\": 3, \"features\": [")).getStatusCode());
+    }
+
+    @Test
+    public void progressIsStreamedUntilTheResult() throws Exception {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(10);
+        List<Employee> resources = random.employeeList(5);
+        random.mix(features, skills, resources);
+
+        NextReleaseProblem problem = new NextReleaseProblem(features, resources, 4, 40.0);
+        problem.getAlgorithmParameters().setNumberOfIterations(500);
+        problem.getAlgorithmParameters().setPopulationSize(20);
+        SolverNRP solver = new SolverNRP();
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        ProgressStream stream = new ProgressStream(emitter, new SolutionWriter(gson), SolutionWriter.View.COMPACT);
+        solver.setListener(stream, 5);
+        SolverJobs jobs = new SolverJobs(1, 1, 60);
+        stream.start(jobs, () -> new ApiPlanningSolution(solver.executeNRP(problem)));
+
+        Assert.assertTrue(emitter.completed.await(60, TimeUnit.SECONDS));
+        jobs.shutdown();
+
+        List<String> names = emitter.names;
+        Assert.assertEquals("job", names.get(0));
+        Assert.assertEquals("result", names.get(names.size() - 1));
+        Assert.assertTrue(names.contains("progress"));
+
+        JsonObject progress = gson.fromJson(emitter.data.get(names.indexOf("progress")), JsonObject.class);
+        Assert.assertEquals(5, progress.get("generation").getAsInt());
+        Assert.assertEquals(2, progress.getAsJsonArray("objectives").size());
+        Assert.assertTrue(progress.getAsJsonObject("plan").has("jobs"));
+    }
+
+    @Test
+    public void invalidProgressRequestIsAnsweredRightAway() {
+        MockHttpServletRequest request = mocker.request("{\"nbWeeks\": 3, \"features\": [");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Assert.assertNull(apiController.replanProgress(request, response));
+        Assert.assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+
+        List<Feature> features = random.featureList(2);
+        List<Employee> resources = random.employeeList(2);
+        request = mocker.request(4, 40.0, features, resources);
+        request.setParameter("generations", "0");
+        response = new MockHttpServletResponse();
+        Assert.assertNull(apiController.replanProgress(request, response));
+        Assert.assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+    }
+
+
+    @Test
+    public void identicalProblemsAreAnsweredFromTheCache() throws Exception {
+        ResultCache cache = new ResultCache(4, 0);
+        ReplanApiController controller = new ReplanApiController();
+        controller.setResultCache(cache);
+
+        List<Skill> skills = random.skillList(3);
+        List<Feature> features = random.featureList(5);
+        List<Employee> resources = random.employeeList(3);
+        random.mix(features, skills, resources);
+
+        ResponseEntity<String> solved = controller.replan(mocker.request(4, 40.0, features, resources));
+        Assert.assertEquals("MISS", solved.getHeaders().getFirst(ReplanApiController.CACHE_HEADER));
+        ResponseEntity<String> cached = controller.replan(mocker.referencesRequest(4, 40.0, features, resources));
+        Assert.assertEquals("HIT", cached.getHeaders().getFirst(ReplanApiController.CACHE_HEADER));
+        Assert.assertEquals(solved.getBody(), cached.getBody());
+
+        MockHttpServletRequest bypassing = mocker.request(4, 40.0, features, resources);
+        bypassing.addHeader("Cache-Control", "no-cache");
+        ResponseEntity<String> resolved = controller.replan(bypassing);
+        Assert.assertEquals("BYPASS", resolved.getHeaders().getFirst(ReplanApiController.CACHE_HEADER));
+
+        ResponseEntity<String> submitted = controller.submitJob(mocker.request(4, 40.0, features, resources));
+        String id = gson.fromJson(submitted.getBody(), JsonObject.class).get("id").getAsString();
+        for (int i = 0; i < 100 && controller.getJobResult(id, new MockHttpServletRequest(), null)
+                .getStatusCode() != HttpStatus.OK; ++i)
+            Thread.sleep(10);
+        Assert.assertEquals(resolved.getBody(),      // Solved again, and cached in place of the first planning
+                controller.getJobResult(id, new MockHttpServletRequest(), null).getBody());
+
+        Map<String, Number> metrics = new HashMap<>();
+        for (Metric<?> metric : cache.metrics())
+            metrics.put(metric.getName(), metric.getValue());
+        Assert.assertEquals(2L, metrics.get("replan.cache.hits").longValue());
+        Assert.assertEquals(1L, metrics.get("replan.cache.misses").longValue());
+        Assert.assertEquals(2.0 / 3, metrics.get("replan.cache.hitRate").doubleValue(), 1e-9);
+        controller.shutdown();
+    }
+
+    @Test
+    public void cacheKeysTellTheProblemsApart() throws Exception {
+        List<Feature> features = random.featureList(3);
+        List<Employee> resources = random.employeeList(2);
+        ApiNextReleaseProblem problem = new ApiNextReleaseProblem(4, 40.0, features, resources);
+        problem.setAlgorithmParameters(new AlgorithmParameters(SolverNRP.AlgorithmType.MOCell));
+        problem.getAlgorithmParameters().setAlgorithmType(SolverNRP.AlgorithmType.MOCell);
+        problem.getAlgorithmParameters().setSeed(1L);
+
+        String key = ResultCache.keyOf(problem);
+        ApiNextReleaseProblem read = gson.fromJson(gson.toJson(problem), ApiNextReleaseProblem.class);
+        Assert.assertEquals(key, ResultCache.keyOf(read));
+        read.getAlgorithmParameters().setSeed(2L);
+        Assert.assertNotEquals(key, ResultCache.keyOf(read));
+
+        ResultCache cache = new ResultCache(1, 1);
+        ApiPlanningSolution planning = new ApiPlanningSolution();
+        cache.put(key, planning);
+        Assert.assertSame(planning, cache.get(key));
+        cache.put(ResultCache.keyOf(read), planning);       // Evicts the least recently used
+        Assert.assertNull(cache.get(key));
+        Thread.sleep(1100);
+        Assert.assertNull(cache.get(ResultCache.keyOf(read)));      // Expired
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedPlanningIsEvicted() {
+        ResultCache cache = new ResultCache(2, 0);
+        ApiPlanningSolution first = new ApiPlanningSolution();
+        ApiPlanningSolution second = new ApiPlanningSolution();
+        ApiPlanningSolution third = new ApiPlanningSolution();
+
+        cache.put("first", first);
+        cache.put("second", second);
+        Assert.assertSame(first, cache.get("first"));       // The second is now the least recently used
+        cache.put("third", third);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get("second"));
+        Assert.assertSame(first, cache.get("first"));
+        Assert.assertSame(third, cache.get("third"));
+
+        Map<String, Number> metrics = new HashMap<>();
+        for (Metric<?> metric : cache.metrics())
+            metrics.put(metric.getName(), metric.getValue());
+        Assert.assertEquals(1L, metrics.get("replan.cache.evictions").longValue());
+        Assert.assertEquals(2, metrics.get("replan.cache.size").intValue());
+    }
+
+    @Test
+    public void identicalJobsShareOneSolve() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 1, 0);
+        InFlightSolves flights = new InFlightSolves();
+        ReplanApiController controller = new ReplanApiController();
+        controller.setAdmission(admission);
+        controller.setResultCache(new ResultCache(0, 0));
+        controller.setInFlightSolves(flights);
+
+        List<Skill> skills = random.skillList(3);
+        List<Feature> features = random.featureList(5);
+        List<Employee> resources = random.employeeList(3);
+        random.mix(features, skills, resources);
+
+        AdmissionController.Ticket running = admission.admit(1);
+        ResponseEntity<String> first = controller.submitJob(mocker.request(4, 40.0, features, resources));
+        ResponseEntity<String> second = controller.submitJob(mocker.request(4, 40.0, features, resources));
+        Assert.assertEquals(HttpStatus.ACCEPTED, second.getStatusCode());     // Not admitted, the queue is full
+        Assert.assertEquals(1, flights.getNbCoalesced());
+        Assert.assertEquals(1, flights.size());
+
+        // The first job leaving does not cancel the solve of the second
+        controller.cancelJob(gson.fromJson(first.getBody(), JsonObject.class).get("id").getAsString());
+        running.release();
+
+        String id = gson.fromJson(second.getBody(), JsonObject.class).get("id").getAsString();
+        ResponseEntity<String> result = null;
+        for (int i = 0; i < 600; ++i) {
+            result = controller.getJobResult(id, new MockHttpServletRequest(), null);
+            if (result.getStatusCode() == HttpStatus.OK)
+                break;
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(HttpStatus.OK, result.getStatusCode());
+        Assert.assertEquals(0, admission.getNbRejected());
+        Assert.assertEquals(0, flights.size());
+        controller.shutdown();
+    }
+
+    @Test
+    public void queuedJobsDoNotHoldAdmissionSlots() throws Exception {
+        AdmissionController admission = new AdmissionController(2, 0, 0);
+        ReplanApiController controller = new ReplanApiController();     // With a single solver thread
+        controller.setAdmission(admission);
+        controller.setResultCache(new ResultCache(0, 0));
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            List<Skill> skills = random.skillList(3);
+            List<Feature> features = random.featureList(20);
+            List<Employee> resources = random.employeeList(3);
+            random.mix(features, skills, resources);
+
+            ApiNextReleaseProblem problem = new ApiNextReleaseProblem(4, 40.0, features, resources);
+            problem.setAlgorithmParameters(new AlgorithmParameters(SolverNRP.AlgorithmType.MOCell));
+            problem.getAlgorithmParameters().setAlgorithmType(SolverNRP.AlgorithmType.MOCell);
+            problem.getAlgorithmParameters().setNumberOfIterations(100000000);       // Until it is cancelled
+
+            ResponseEntity<String> submitted = controller.submitJob(mocker.request(gson.toJson(problem)));
+            Assert.assertEquals(HttpStatus.ACCEPTED, submitted.getStatusCode());
+            ids.add(gson.fromJson(submitted.getBody(), JsonObject.class).get("id").getAsString());
+        }
+
+        for (int i = 0; i < 100 && admission.getNbRunning() == 0; ++i)      // Admitted once it runs
+            Thread.sleep(10);
+        Assert.assertEquals("RUNNING", statusOf(controller, ids.get(0)));
+        Assert.assertEquals("QUEUED", statusOf(controller, ids.get(2)));
+        Assert.assertEquals(1, admission.getNbRunning());      // The queued jobs are not admitted yet
+        Assert.assertEquals(0, admission.getNbQueued());
+
+        // So a synchronous solve finds the free slot
+        List<Feature> features = random.featureList(3);
+        List<Employee> resources = random.employeeList(2);
+        Assert.assertEquals(HttpStatus.OK,
+                controller.replan(mocker.request(4, 40.0, features, resources)).getStatusCode());
+        Assert.assertEquals(0, admission.getNbRejected());
+
+        for (String id : ids)
+            controller.cancelJob(id);
+        for (int i = 0; i < 100 && admission.getNbRunning() > 0; ++i)
+            Thread.sleep(10);
+        Assert.assertEquals(0, admission.getNbRunning());
+        controller.shutdown();
+    }
+
+    private static String statusOf(ReplanApiController controller, String id) {
+        return gson.fromJson(controller.getJob(id).getBody(), JsonObject.class).get("status").getAsString();
+    }
+
+    @Test
+    public void lastWaiterLeavingCancelsTheSolve() throws Exception {
+        InFlightSolves flights = new InFlightSolves();
+        ApiPlanningSolution planning = new ApiPlanningSolution();
+        AtomicInteger solves = new AtomicInteger();
+        AtomicInteger cancels = new AtomicInteger();
+
+        InFlightSolves.Waiter first = flights.join("done");
+        InFlightSolves.Waiter second = flights.join("done");
+        Assert.assertTrue(first.isFirst());
+        Assert.assertFalse(second.isFirst());
+        first.start(() -> { solves.incrementAndGet(); return planning; }, cancels::incrementAndGet);
+        Assert.assertSame(planning, second.await());
+        Assert.assertSame(planning, first.await());
+        first.leave();
+        second.leave();
+        Assert.assertEquals(1, solves.get());
+        Assert.assertEquals(0, cancels.get());
+
+        first = flights.join("left");
+        second = flights.join("left");
+        first.start(() -> { solves.incrementAndGet(); return planning; }, cancels::incrementAndGet);
+        first.leave();
+        first.leave();      // Counts once
+        Assert.assertEquals(0, cancels.get());
+        second.leave();
+        Assert.assertEquals(1, cancels.get());
+        try {
+            second.await();
+            Assert.fail("The solve was cancelled");
+        } catch (CancellationException e) {
+            Assert.assertEquals(1, solves.get());
+        }
+        Assert.assertEquals(0, flights.size());
+    }
+
+    @Test
+    public void solvesBeyondTheAdmissionQueueAreRejected() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 0, 0);
+        ReplanApiController controller = new ReplanApiController();
+        controller.setAdmission(admission);
+
+        List<Feature> features = random.featureList(3);
+        List<Employee> resources = random.employeeList(2);
+
+        AdmissionController.Ticket running = admission.admit(1);
+        ResponseEntity<String> rejected = controller.replan(mocker.request(4, 40.0, features, resources));
+        Assert.assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        Assert.assertEquals("1", rejected.getHeaders().getFirst("Retry-After"));
+        Assert.assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                controller.submitJob(mocker.request(4, 40.0, features, resources)).getStatusCode());
+        Assert.assertEquals(2, admission.getNbRejected());
+
+        running.release();
+        Assert.assertEquals(HttpStatus.OK,
+                controller.replan(mocker.request(4, 40.0, features, resources)).getStatusCode());
+        Assert.assertEquals(0, admission.getNbRunning());
+    }
+
+    @Test
+    public void waitingSolvesStartInTheirOrder() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 2, 0);
+
+        AdmissionController.Ticket first = admission.admit(10);
+        AdmissionController.Ticket second = admission.admit(10);
+        AdmissionController.Ticket third = admission.admit(10);
+        try {
+            admission.admit(10);
+            Assert.fail("The queue is full");
+        } catch (AdmissionRejectedException e) {
+            Assert.assertTrue(e.getRetryAfterSeconds() >= 1);
+        }
+        Assert.assertEquals(2, admission.getNbQueued());
+
+        second.release();       // Given up while waiting
+        Assert.assertFalse(second.await());
+        first.release();
+        Assert.assertTrue(third.await());
+        Assert.assertEquals(1, admission.getNbRunning());
+        Assert.assertEquals(0, admission.getNbQueued());
+
+        Map<String, Number> metrics = new HashMap<>();
+        for (Metric<?> metric : admission.metrics())
+            metrics.put(metric.getName(), metric.getValue());
+        Assert.assertEquals(3L, metrics.get("replan.admission.admitted").longValue());
+        Assert.assertEquals(1L, metrics.get("replan.admission.rejected").longValue());
+        Assert.assertEquals(0, metrics.get("replan.admission.queued").intValue());
+        third.release();
+    }
+
+    // Records the events sent to it
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final List<String> data = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String event = "";
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build())
+                event += part.getData();
+            for (String line : event.split("\n")) {
+                if (line.startsWith("event:"))
+                    names.add(line.substring("event:".length()));
+                else if (line.startsWith("data:"))
+                    data.add(line.substring("data:".length()));
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
 }
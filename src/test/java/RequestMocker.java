@@ -27,6 +27,23 @@ public class RequestMocker {
         return request;
     }
 
+    public MockHttpServletRequest referencesRequest(int nbWeeks, double hoursPerWeek,
+                                                    List<Feature> features, List<Employee> resources)
+    {
+        ApiNextReleaseProblem problem = new ApiNextReleaseProblem(nbWeeks, hoursPerWeek, features, resources);
+
+        return request(ReplanGson.REFERENCES_CONTENT_TYPE, ReplanGson.getReferencesGson().toJson(problem));
+    }
+
+    public MockHttpServletRequest request(String contentType, String content) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType(contentType);
+
+        request.setContent(content.getBytes());
+
+        return request;
+    }
+
     public MockHttpServletRequest request(String content) {
         MockHttpServletRequest request = new MockHttpServletRequest();
         request.setContentType("application/json");
@@ -0,0 +1,211 @@
+import entities.Employee;
+import entities.Feature;
+import entities.PlannedFeature;
+import entities.PriorityLevel;
+import entities.Schedule;
+import entities.WeekSchedule;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the weeks of a {@link Schedule}, which are stored in arrays and built as {@link WeekSchedule} when asked for
+ */
+public class ScheduleTest {
+
+    private static final double HOURS_PER_WEEK = 40.0;
+
+    /*   -------------
+        | AUX METHODS |
+         -------------
+     */
+    private static PlannedFeature job(String name, double duration, Employee employee) {
+        return new PlannedFeature(
+                new Feature(name, PriorityLevel.THREE, duration, new ArrayList<>(), new ArrayList<>()), employee);
+    }
+
+    private static Employee employee(double weekAvailability) {
+        return new Employee("E" + weekAvailability, weekAvailability, new ArrayList<>());
+    }
+
+    // Checks the hours of the i-th week of the schedule, and the names of its planned features
+    private static void assertWeek(Schedule schedule, int i, double beginHour, double endHour, double remainingHours,
+                                   String... features) {
+        WeekSchedule week = schedule.getWeek(i);
+        Assert.assertEquals(beginHour, week.getBeginHour(), 1e-9);
+        Assert.assertEquals(endHour, week.getEndHour(), 1e-9);
+        Assert.assertEquals(remainingHours, week.getRemainingHours(), 1e-9);
+        Assert.assertEquals(features.length, week.getPlannedFeatures().size());
+        for (int j = 0; j < features.length; ++j)
+            Assert.assertEquals(features[j], week.getPlannedFeatures().get(j).getFeature().getName());
+    }
+
+    private static void assertHours(PlannedFeature pf, double beginHour, double endHour) {
+        Assert.assertEquals(beginHour, pf.getBeginHour(), 1e-9);
+        Assert.assertEquals(endHour, pf.getEndHour(), 1e-9);
+    }
+
+
+    /*   -------
+        | TESTS |
+         -------
+     */
+    @Test
+    public void featureFillingAWeekExactlyMovesToTheNextWeek() {
+        Employee employee = employee(40.0);
+        Schedule schedule = new Schedule(employee, 4, HOURS_PER_WEEK);
+        PlannedFeature first = job("A", 40.0, employee);
+        PlannedFeature second = job("B", 10.0, employee);
+        Assert.assertTrue(schedule.scheduleFeature(first));
+        Assert.assertTrue(schedule.scheduleFeature(second));
+
+        Assert.assertEquals(2, schedule.size());
+        assertWeek(schedule, 0, 0.0, 40.0, 0.0, "A");
+        assertWeek(schedule, 1, 40.0, 50.0, 30.0, "B");
+        assertHours(first, 0.0, 40.0);
+        assertHours(second, 40.0, 50.0);
+        Assert.assertEquals(4 * 40.0 - 50.0, schedule.getTotalHoursLeft(), 0.0);
+
+        Assert.assertFalse(schedule.scheduleFeature(job("C", 120.0, employee)));   // More than the hours left
+        Assert.assertEquals(2, schedule.getNbJobs());
+    }
+
+    @Test
+    public void weeksAreBuiltWithTheFeaturesSpanningThem() {
+        Employee employee = employee(15.0);
+        Schedule schedule = new Schedule(employee, 10, HOURS_PER_WEEK);
+        schedule.scheduleFeature(job("A", 5.0, employee));
+        schedule.scheduleFeature(job("B", 50.0, employee));
+        schedule.scheduleFeature(job("D", 20.0, employee));       // Fills its last week exactly
+
+        double firstWeekEnd = 5.0 + 10.0 * HOURS_PER_WEEK / 15.0;
+        Assert.assertEquals(6, schedule.size());
+        assertWeek(schedule, 0, 0.0, firstWeekEnd, 0.0, "A", "B");
+        assertWeek(schedule, 1, firstWeekEnd, firstWeekEnd + 40.0, 0.0, "B");
+        assertWeek(schedule, 2, firstWeekEnd + 40.0, firstWeekEnd + 80.0, 0.0, "B");
+        assertWeek(schedule, 3, firstWeekEnd + 80.0, 135.0, 0.0, "B", "D");
+        assertWeek(schedule, 4, 135.0, 150.0, 0.0, "D");
+        assertWeek(schedule, 5, 150.0, 150.0, 15.0);          // Opened when the last one got full
+
+        List<WeekSchedule> weeks = schedule.getAllWeeks();    // Without the empty ones
+        Assert.assertEquals(5, weeks.size());
+        Assert.assertEquals(135.0, weeks.get(4).getBeginHour(), 0.0);
+
+        // The weeks are copies
+        schedule.getWeek(4).addPlannedFeature(job("E", 1.0, employee));
+        assertWeek(schedule, 4, 135.0, 150.0, 0.0, "D");
+        try {
+            schedule.getWeek(6);
+            Assert.fail("There are 6 weeks");
+        } catch (IndexOutOfBoundsException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void rollingBackToAMiddleCheckpointRestoresItsState() {
+        Employee employee = employee(15.0);
+        Schedule schedule = new Schedule(employee, 10, HOURS_PER_WEEK);
+        schedule.scheduleFeature(job("A", 5.0, employee));
+        schedule.scheduleFeature(job("B", 50.0, employee));
+        schedule.scheduleFeature(job("C", 10.0, employee));       // Weeks 3 and 4
+        schedule.scheduleFeature(job("E", 30.0, employee));
+
+        Schedule expected = new Schedule(employee, 10, HOURS_PER_WEEK);
+        expected.scheduleFeature(job("A", 5.0, employee));
+        expected.scheduleFeature(job("B", 50.0, employee));
+
+        schedule.rollback(2);
+        Assert.assertEquals(2, schedule.getNbJobs());
+        Assert.assertEquals(expected, schedule);
+        Assert.assertEquals(expected.getTotalHoursLeft(), schedule.getTotalHoursLeft(), 0.0);
+        double firstWeekEnd = 5.0 + 10.0 * HOURS_PER_WEEK / 15.0;
+        Assert.assertEquals(4, schedule.size());
+        assertWeek(schedule, 3, firstWeekEnd + 80.0, firstWeekEnd + 90.0, 5.0, "B");
+
+        // Scheduled again from the restored state, as if the rolled back features never were
+        PlannedFeature rescheduled = job("D", 20.0, employee);
+        PlannedFeature expectedD = job("D", 20.0, employee);
+        schedule.scheduleFeature(rescheduled);
+        expected.scheduleFeature(expectedD);
+        Assert.assertEquals(expected, schedule);
+        assertHours(rescheduled, expectedD.getBeginHour(), expectedD.getEndHour());
+        assertWeek(schedule, 4, 135.0, 150.0, 0.0, "D");
+
+        schedule.rollback(0);
+        Assert.assertEquals(new Schedule(employee, 10, HOURS_PER_WEEK), schedule);
+    }
+
+    @Test
+    public void featureSpillsOverSeveralWeeksOfALowAvailability() {
+        Employee employee = employee(15.0);
+        Schedule schedule = new Schedule(employee, 10, HOURS_PER_WEEK);
+        PlannedFeature first = job("A", 5.0, employee);
+        PlannedFeature spilling = job("B", 50.0, employee);       // 10 hours, then 15, 15 and 10
+        PlannedFeature last = job("C", 10.0, employee);
+        schedule.scheduleFeature(first);
+        schedule.scheduleFeature(spilling);
+        schedule.scheduleFeature(last);
+
+        // The hours done in a week the feature does not end in take the whole week in the calendar
+        double firstWeekEnd = 5.0 + 10.0 * HOURS_PER_WEEK / 15.0;
+        assertHours(first, 0.0, 5.0);
+        assertHours(spilling, 5.0, firstWeekEnd + 90.0);
+        assertHours(last, firstWeekEnd + 90.0, 140.0);
+
+        Assert.assertEquals(5, schedule.size());
+        assertWeek(schedule, 0, 0.0, firstWeekEnd, 0.0, "A", "B");
+        assertWeek(schedule, 1, firstWeekEnd, firstWeekEnd + 40.0, 0.0, "B");
+        assertWeek(schedule, 2, firstWeekEnd + 40.0, firstWeekEnd + 80.0, 0.0, "B");
+        assertWeek(schedule, 3, firstWeekEnd + 80.0, 135.0, 0.0, "B", "C");
+        assertWeek(schedule, 4, 135.0, 140.0, 10.0, "C");
+        Assert.assertEquals(10 * 15.0 - 65.0, schedule.getTotalHoursLeft(), 0.0);
+    }
+
+    @Test
+    public void forcedFeatureKeepsItsHoursInAPartlyUsedWeek() {
+        Employee employee = employee(40.0);
+        Schedule schedule = new Schedule(employee, 4, HOURS_PER_WEEK);
+        PlannedFeature first = job("P", 10.0, employee);
+        schedule.scheduleFeature(first);
+
+        PlannedFeature forced = job("F", 15.0, employee);
+        forced.setBeginHour(20.0);
+        forced.setEndHour(35.0);
+        schedule.forceSchedule(forced);
+
+        assertHours(first, 0.0, 10.0);
+        assertHours(forced, 20.0, 35.0);
+        Assert.assertEquals(1, schedule.size());
+        assertWeek(schedule, 0, 0.0, 35.0, 15.0, "P", "F");
+        Assert.assertEquals(4 * 40.0 - 25.0, schedule.getTotalHoursLeft(), 0.0);
+
+        // The next feature starts after the forced one, spilling over the next week
+        PlannedFeature next = job("Q", 20.0, employee);
+        schedule.scheduleFeature(next);
+        assertHours(next, 35.0, 55.0);
+        Assert.assertEquals(2, schedule.size());
+        assertWeek(schedule, 0, 0.0, 50.0, 0.0, "P", "F", "Q");
+        assertWeek(schedule, 1, 50.0, 55.0, 35.0, "Q");
+    }
+
+    @Test
+    public void summedWeekHoursCountAFeatureInEveryWeekItSpans() {
+        Employee employee = employee(20.0);
+        Schedule schedule = new Schedule(employee, 10, HOURS_PER_WEEK);
+        schedule.scheduleFeature(job("A", 5.0, employee));
+        schedule.scheduleFeature(job("B", 50.0, employee));        // Weeks 0 to 2
+        schedule.scheduleFeature(job("C", 10.0, employee));       // Weeks 2 and 3
+
+        double hours = 0.0;
+        for (WeekSchedule week : schedule)
+            for (PlannedFeature pf : week.getPlannedFeatures())
+                hours += pf.getFeature().getDuration();
+        Assert.assertEquals(5.0 + 3 * 50.0 + 2 * 10.0, hours, 0.0);
+        Assert.assertEquals(hours, schedule.getSummedWeekHours(), 0.0);
+
+        Assert.assertEquals(0.0, new Schedule(employee, 10, HOURS_PER_WEEK).getSummedWeekHours(), 0.0);
+    }
+}
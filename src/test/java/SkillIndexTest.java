@@ -0,0 +1,91 @@
+import entities.Employee;
+import entities.Skill;
+import logic.SkillIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the skill bitsets of a {@link SkillIndex}
+ */
+public class SkillIndexTest {
+
+    private static final int NB_SKILLS = 70;     // More than the 64 bits of a word
+
+    /*   -------------
+        | AUX METHODS |
+         -------------
+     */
+    private static List<Skill> skills(int from, int to) {
+        List<Skill> skills = new ArrayList<>();
+        for (int s = from; s < to; ++s)
+            skills.add(new Skill("S" + s));
+        return skills;
+    }
+
+    // Every skill, the first skills only and the last skills only
+    private static SkillIndex index() {
+        return new SkillIndex(Arrays.asList(
+                new Employee("All", 40.0, skills(0, NB_SKILLS)),
+                new Employee("First", 40.0, skills(0, 64)),
+                new Employee("Last", 40.0, skills(64, NB_SKILLS))));
+    }
+
+    /*   -------
+        | TESTS |
+         -------
+     */
+    @Test
+    public void skillsBeyondTheFirstWordAreIndexed() {
+        SkillIndex index = index();
+        Assert.assertEquals(NB_SKILLS, index.getNbSkills());
+        Assert.assertEquals(64, index.skillId(new Skill("S64")));
+        Assert.assertEquals(NB_SKILLS - 1, index.skillId(new Skill("S" + (NB_SKILLS - 1))));
+
+        Assert.assertTrue(index.hasSkill(0, 69));
+        Assert.assertFalse(index.hasSkill(1, 69));
+        Assert.assertTrue(index.hasSkill(2, 69));
+        Assert.assertTrue(index.hasSkill(1, 63));
+        Assert.assertFalse(index.hasSkill(2, 63));
+
+        long[] mask = index.maskOf(skills(62, 66));
+        Assert.assertEquals(2, mask.length);
+        Assert.assertEquals(3L << 62, mask[0]);
+        Assert.assertEquals(3L, mask[1]);
+    }
+
+    @Test
+    public void skillsSpanningTwoWordsAreAllRequired() {
+        SkillIndex index = index();
+
+        long[] bothWords = index.maskOf(skills(62, 66));
+        Assert.assertTrue(index.hasSkills(0, bothWords));
+        Assert.assertFalse(index.hasSkills(1, bothWords));
+        Assert.assertFalse(index.hasSkills(2, bothWords));
+        Assert.assertArrayEquals(new int[] {0}, index.employeesWith(bothWords));
+
+        long[] secondWord = index.maskOf(skills(65, NB_SKILLS));
+        Assert.assertArrayEquals(new int[] {0, 2}, index.employeesWith(secondWord));
+
+        long[] none = index.maskOf(new ArrayList<>());
+        Assert.assertArrayEquals(new int[] {0, 1, 2}, index.employeesWith(none));
+    }
+
+    @Test
+    public void unknownSkillHasNoMaskAndNoEmployee() {
+        SkillIndex index = index();
+        Skill unknown = new Skill("Unknown");
+        Assert.assertEquals(SkillIndex.UNKNOWN, index.skillId(unknown));
+        Assert.assertFalse(index.hasSkill(0, SkillIndex.UNKNOWN));
+
+        List<Skill> required = skills(0, 2);
+        required.add(unknown);
+        Assert.assertNull(index.maskOf(required));
+        Assert.assertFalse(index.hasSkills(0, null));
+        Assert.assertEquals(0, index.employeesWith((long[]) null).length);
+        Assert.assertTrue(index.employeesWith(required).isEmpty());
+    }
+}
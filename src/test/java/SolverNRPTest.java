@@ -1,21 +1,35 @@
 import entities.*;
+import entities.parameters.AlgorithmParameters;
 import io.swagger.model.ApiNextReleaseProblem;
 import io.swagger.model.ApiPlanningSolution;
 import logic.analytics.Analytics;
+import logic.CancellationToken;
+import logic.CompiledProblem;
+import logic.DuplicateSkippingSolutionListEvaluator;
+import logic.EvaluationCache;
 import logic.NextReleaseProblem;
 import logic.PlanningSolution;
+import logic.PreviousPlan;
+import logic.SolutionQuality;
 import logic.SolverNRP;
+import logic.operators.PlanningCrossoverOperator;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import org.uma.jmetal.util.solutionattribute.impl.NumberOfViolatedConstraints;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -211,6 +225,585 @@ public class SolverNRPTest {
         }
     }
 
+    @Test
+    public void randomProblemEvaluatedInParallelValidatesAllConstraints() {
+        List<Skill> skills = random.skillList(7);
+        List<Feature> features = random.featureList(20);
+        List<Employee> employees = random.employeeList(5);
+
+        random.mix(features, skills, employees);
+
+        for (SolverNRP.AlgorithmType type : asList(SolverNRP.AlgorithmType.NSGAII, SolverNRP.AlgorithmType.SMSEMOA)) {
+            NextReleaseProblem problem = new NextReleaseProblem(features, employees, 4, 40.0);
+            AlgorithmParameters parameters = new AlgorithmParameters(type);
+            parameters.setAlgorithmType(type);
+            parameters.setNumberOfThreads(4);
+            problem.setAlgorithmParameters(parameters);
+
+            PlanningSolution solution = new SolverNRP().executeNRP(problem);
+
+            validator.validateAll(solution);
+        }
+    }
+
+
+    @Test
+    public void sameSeedGivesTheSamePlanning() {
+        List<Skill> skills = random.skillList(7);
+        List<Feature> features = random.featureList(20);
+        List<Employee> employees = random.employeeList(5);
+
+        random.mix(features, skills, employees);
+
+        PlanningSolution[] solutions = new PlanningSolution[2];
+        for (int i = 0; i < solutions.length; ++i) {
+            NextReleaseProblem problem = new NextReleaseProblem(features, employees, 4, 40.0);
+            AlgorithmParameters parameters = new AlgorithmParameters(SolverNRP.AlgorithmType.NSGAII);
+            parameters.setSeed(42L);
+            problem.setAlgorithmParameters(parameters);
+
+            solutions[i] = new SolverNRP().executeNRP(problem);
+        }
+
+        Assert.assertEquals(solutions[0].getPlannedFeatures(), solutions[1].getPlannedFeatures());
+    }
+
+    @Test
+    public void evaluationCacheDoesNotChangeThePlanning() {
+        List<Skill> skills = random.skillList(7);
+        List<Feature> features = random.featureList(20);
+        List<Employee> employees = random.employeeList(5);
+
+        random.mix(features, skills, employees);
+
+        PlanningSolution[] solutions = new PlanningSolution[2];
+        for (int i = 0; i < solutions.length; ++i) {
+            NextReleaseProblem problem = new NextReleaseProblem(features, employees, 4, 40.0);
+            AlgorithmParameters parameters = new AlgorithmParameters(SolverNRP.AlgorithmType.NSGAII);
+            parameters.setSeed(42L);
+            parameters.setEvaluationCacheSize(i == 0 ? 0 : 500);
+            problem.setAlgorithmParameters(parameters);
+
+            solutions[i] = new SolverNRP().executeNRP(problem);
+        }
+
+        Assert.assertEquals(solutions[0].getPlannedFeatures(), solutions[1].getPlannedFeatures());
+    }
+
+
+    @Test
+    public void listenerFollowsTheSolveOfEveryKindOfAlgorithm() {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(15);
+        List<Employee> employees = random.employeeList(5);
+
+        random.mix(features, skills, employees);
+
+        for (SolverNRP.AlgorithmType type : asList(SolverNRP.AlgorithmType.NSGAII, SolverNRP.AlgorithmType.MOCell)) {
+            PlanningSolution[] solutions = new PlanningSolution[2];
+            List<Integer> generations = new ArrayList<>();
+            for (int i = 0; i < solutions.length; ++i) {
+                NextReleaseProblem problem = new NextReleaseProblem(features, employees, 4, 40.0);
+                AlgorithmParameters parameters = new AlgorithmParameters(type);
+                parameters.setAlgorithmType(type);
+                parameters.setSeed(42L);
+                parameters.setNumberOfIterations(2 * parameters.getPopulationSize());
+                problem.setAlgorithmParameters(parameters);
+
+                SolverNRP solver = new SolverNRP();
+                if (i == 1)
+                    solver.setListener((generation, evaluations, best) -> {
+                        Assert.assertNotNull(best);
+                        Assert.assertTrue(evaluations >= generation * parameters.getPopulationSize());
+                        generations.add(generation);
+                    }, 1);
+                solutions[i] = solver.executeNRP(problem);
+            }
+
+            Assert.assertFalse(generations.isEmpty());
+            for (int i = 1; i < generations.size(); ++i)
+                Assert.assertTrue(generations.get(i) > generations.get(i - 1));
+            Assert.assertEquals(solutions[0].getPlannedFeatures(), solutions[1].getPlannedFeatures());
+        }
+    }
+
+    @Test
+    public void cancelledSolveOfEveryKindOfAlgorithmReturnsItsBestSolution() {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(15);
+        List<Employee> employees = random.employeeList(5);
+
+        random.mix(features, skills, employees);
+
+        for (SolverNRP.AlgorithmType type : SolverNRP.AlgorithmType.values()) {
+            NextReleaseProblem problem = new NextReleaseProblem(features, employees, 4, 40.0);
+            AlgorithmParameters parameters = new AlgorithmParameters(type);
+            parameters.setAlgorithmType(type);
+            parameters.setNumberOfIterations(Integer.MAX_VALUE / parameters.getPopulationSize());
+            problem.setAlgorithmParameters(parameters);
+
+            CancellationToken token = new CancellationToken();
+            SolverNRP solver = new SolverNRP();
+            solver.setCancellationToken(token);
+            solver.setListener((generation, evaluations, best) -> {
+                if (generation >= 2)
+                    token.cancel();
+            }, 1);
+            PlanningSolution solution = solver.executeNRP(problem);
+
+            Assert.assertEquals(type.name(), "cancelled", solver.getStopReason());
+            Assert.assertNotNull(solution.getAnalytics());
+            validator.validateAll(solution);
+        }
+    }
+
+    @Test
+    public void solveIsStoppedAtItsDeadline() {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(15);
+        List<Employee> employees = random.employeeList(5);
+
+        random.mix(features, skills, employees);
+
+        NextReleaseProblem problem = new NextReleaseProblem(features, employees, 4, 40.0);
+        problem.getAlgorithmParameters().setNumberOfIterations(Integer.MAX_VALUE / 1000);
+        SolverNRP solver = new SolverNRP();
+        solver.setDeadline(Instant.now().plusMillis(500));
+
+        long start = System.currentTimeMillis();
+        PlanningSolution solution = solver.executeNRP(problem);
+        Assert.assertTrue(System.currentTimeMillis() - start < 30000);
+        Assert.assertEquals("deadline", solver.getStopReason());
+        validator.validateAll(solution);
+
+        // Cancelled before its first evaluation, the solve has nothing better than the empty planning
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        solver.setDeadline(null);
+        solver.setCancellationToken(token);
+        Assert.assertTrue(solver.executeNRP(problem).getPlannedFeatures().isEmpty());
+        Assert.assertEquals("cancelled", solver.getStopReason());
+    }
+
+    @Test
+    public void incrementalEvaluationMatchesAFullOne() {
+        List<Skill> skills = random.skillList(5);
+        List<Feature> features = random.featureList(20);
+        List<Employee> employees = random.employeeList(5);
+
+        random.mix(features, skills, employees);
+
+        NextReleaseProblem problem = new NextReleaseProblem(features, employees, 3, 40.0);
+        problem.getAlgorithmParameters().setSeed(7L);
+        PlanningSolution solution = problem.createSolution();
+        evaluate(problem, solution);
+
+        solution.scheduleRandomFeature(solution.size() / 2);       // Insert
+        evaluate(problem, solution);
+        assertSameEvaluationAsAFreshSolution(problem, solution);
+
+        solution.unschedule(solution.getPlannedFeature(solution.size() / 3));     // Remove
+        evaluate(problem, solution);
+        assertSameEvaluationAsAFreshSolution(problem, solution);
+
+        solution.exchange(1, solution.size() - 2);
+        evaluate(problem, solution);
+        assertSameEvaluationAsAFreshSolution(problem, solution);
+
+        // Children of two equal parents are whole prefixes of them, evaluated with their constraints only
+        PlanningSolution other = problem.createSolution();
+        evaluate(problem, other);
+        PlanningCrossoverOperator crossover = new PlanningCrossoverOperator(problem, 1.0);
+        List<PlanningSolution> children = new ArrayList<>(crossover.execute(asList(solution, other)));
+        children.addAll(crossover.execute(asList(solution, new PlanningSolution(solution))));
+        for (PlanningSolution child : children) {
+            problem.evaluateConstraints(child);
+            assertSameEvaluationAsAFreshSolution(problem, child);
+        }
+    }
+
+    private static void evaluate(NextReleaseProblem problem, PlanningSolution solution) {
+        problem.evaluate(solution);
+        problem.evaluateConstraints(solution);
+    }
+
+    // Compares the solution with a solution of the same genotype evaluated from scratch
+    private static void assertSameEvaluationAsAFreshSolution(NextReleaseProblem problem, PlanningSolution solution) {
+        PlanningSolution fresh = rebuild(problem, solution);
+        evaluate(problem, fresh);
+
+        for (int i = 0; i < solution.getNumberOfObjectives(); ++i)
+            Assert.assertEquals(fresh.getObjective(i), solution.getObjective(i), 0.0);
+        NumberOfViolatedConstraints<PlanningSolution> violatedConstraints = new NumberOfViolatedConstraints<>();
+        Assert.assertEquals(violatedConstraints.getAttribute(fresh), violatedConstraints.getAttribute(solution));
+        SolutionQuality quality = new SolutionQuality();
+        Assert.assertEquals(quality.getAttribute(fresh), quality.getAttribute(solution));
+        Assert.assertEquals(fresh.getEndDate(), solution.getEndDate(), 0.0);
+
+        Assert.assertEquals(fresh.size(), solution.size());
+        for (int i = 0; i < fresh.size(); ++i) {
+            PlannedFeature expected = fresh.getPlannedFeature(i);
+            PlannedFeature actual = solution.getPlannedFeature(i);
+            Assert.assertEquals(expected.getFeature(), actual.getFeature());
+            Assert.assertEquals(expected.getEmployee(), actual.getEmployee());
+            Assert.assertEquals(expected.getBeginHour(), actual.getBeginHour(), 0.0);
+            Assert.assertEquals(expected.getEndHour(), actual.getEndHour(), 0.0);
+        }
+    }
+
+    @Test
+    public void hoursOfTheFeaturesAreTheOnesOfTheirJobs() {
+        List<Feature> features = random.featureList(5);
+        List<Employee> employees = random.employeeList(2);
+        features.get(2).getPreviousFeatures().add(features.get(0));
+
+        NextReleaseProblem problem = new NextReleaseProblem(features, employees, 10, 40.0);
+        PlanningSolution solution = new PlanningSolution(problem, false);
+        for (int f = 0; f < 4; ++f)
+            solution.scheduleAtTheEnd(f, f % 2);
+        Assert.assertTrue(Double.isNaN(solution.getBeginHour(features.get(4))));
+        Assert.assertTrue(Double.isNaN(solution.getEndHour(features.get(4))));
+
+        evaluate(problem, solution);
+        Assert.assertEquals(4, solution.size());
+        Assert.assertTrue(Double.isNaN(solution.getBeginHour(features.get(4))));
+        Assert.assertTrue(Double.isNaN(solution.getEndHour(features.get(4))));
+        Feature unknown = new Feature("Unknown", PriorityLevel.ONE, 10.0, new ArrayList<>(), new ArrayList<>());
+        Assert.assertTrue(Double.isNaN(solution.getEndHour(unknown)));
+
+        for (PlannedFeature pf : solution.getPlannedFeatures()) {
+            Assert.assertEquals(pf.getBeginHour(), solution.getBeginHour(pf.getFeature()), 0.0);
+            Assert.assertEquals(pf.getEndHour(), solution.getEndHour(pf.getFeature()), 0.0);
+        }
+        Assert.assertTrue(solution.getEndHour(features.get(0)) <= solution.getBeginHour(features.get(2)));
+
+        // Unscheduled by a change of the genotype
+        solution.unschedule(solution.findPlannedFeature(features.get(3)));
+        evaluate(problem, solution);
+        Assert.assertTrue(Double.isNaN(solution.getBeginHour(features.get(3))));
+        Assert.assertEquals(solution.findPlannedFeature(features.get(2)).getEndHour(),
+                solution.getEndHour(features.get(2)), 0.0);
+    }
+
+    @Test
+    public void genotypeKeepsTheOrderAndPositionsOfItsFeatures() {
+        NextReleaseProblem problem = random.all(3, 8, 3, 3, 40.0);
+        CompiledProblem compiled = problem.getCompiledProblem();
+        PlanningSolution solution = new PlanningSolution(problem, false);
+        assertGenotype(solution);
+
+        for (int f = 0; f < 5; ++f)
+            solution.scheduleAtTheEnd(f, f % compiled.getNbEmployees());
+        assertGenotype(solution, 0, 1, 2, 3, 4);
+
+        solution.schedule(1, compiled.getFeature(6), compiled.getEmployee(0));      // Insert
+        assertGenotype(solution, 0, 6, 1, 2, 3, 4);
+
+        solution.schedule(4, compiled.getFeature(0), compiled.getEmployee(2));      // Move forward
+        assertGenotype(solution, 6, 1, 2, 0, 3, 4);
+        Assert.assertEquals(2, solution.getEmployeeId(3));
+
+        solution.exchange(0, 5);
+        assertGenotype(solution, 4, 1, 2, 0, 3, 6);
+        Assert.assertEquals(4 % compiled.getNbEmployees(), solution.getEmployeeId(0));
+        Assert.assertEquals(0, solution.getEmployeeId(5));
+
+        solution.unschedule(solution.getPlannedFeature(2));                         // Remove
+        assertGenotype(solution, 4, 1, 0, 3, 6);
+
+        solution.unschedule(new PlannedFeature(compiled.getFeature(7), compiled.getEmployee(0)));  // Not planned
+        assertGenotype(solution, 4, 1, 0, 3, 6);
+
+        solution.scheduleAtTheEnd(1, 2);                                            // Move to the end
+        assertGenotype(solution, 4, 0, 3, 6, 1);
+        Assert.assertEquals(2, solution.getEmployeeId(4));
+    }
+
+    @Test
+    public void plannedFeaturesAreFoundAfterUnschedulingAndExchangingThem() {
+        NextReleaseProblem problem = random.all(3, 8, 3, 10, 40.0);
+        CompiledProblem compiled = problem.getCompiledProblem();
+        PlanningSolution solution = new PlanningSolution(problem, false);
+        for (int f = 0; f < 6; ++f)
+            solution.scheduleAtTheEnd(f, f % compiled.getNbEmployees());
+        assertFeaturesDoneBy(solution);
+
+        solution.exchange(0, 4);
+        assertGenotype(solution, 4, 1, 2, 3, 0, 5);
+        assertFeaturesDoneBy(solution);
+
+        solution.unschedule(solution.findPlannedFeature(compiled.getFeature(2)));
+        assertGenotype(solution, 4, 1, 3, 0, 5);
+        assertFeaturesDoneBy(solution);
+
+        // The lookups of an evaluated solution come from its schedules
+        evaluate(problem, solution);
+        assertGenotype(solution, 4, 1, 3, 0, 5);
+        assertFeaturesDoneBy(solution);
+
+        solution.exchange(1, 3);
+        solution.unschedule(solution.getPlannedFeature(0));
+        assertGenotype(solution, 0, 3, 1, 5);
+        assertFeaturesDoneBy(solution);
+        evaluate(problem, solution);
+        assertFeaturesDoneBy(solution);
+    }
+
+    // Checks that every employee does the planned features of its positions, in planning order
+    private static void assertFeaturesDoneBy(PlanningSolution solution) {
+        CompiledProblem compiled = solution.getProblem().getCompiledProblem();
+        for (int e = 0; e < compiled.getNbEmployees(); ++e) {
+            List<Feature> expected = new ArrayList<>();
+            for (int i = 0; i < solution.size(); ++i)
+                if (solution.getEmployeeId(i) == e)
+                    expected.add(compiled.getFeature(solution.getFeatureId(i)));
+
+            List<Feature> actual = new ArrayList<>();
+            for (PlannedFeature pf : solution.getFeaturesDoneBy(compiled.getEmployee(e))) {
+                Assert.assertEquals(compiled.getEmployee(e), pf.getEmployee());
+                Assert.assertEquals(pf, solution.findPlannedFeature(pf.getFeature()));
+                actual.add(pf.getFeature());
+            }
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void frozenJobsOfThePreviousPlanFollowTheirFeatures() {
+        NextReleaseProblem problem = random.all(3, 6, 2, 3, 40.0);
+        CompiledProblem compiled = problem.getCompiledProblem();
+
+        List<PlannedFeature> previousPlan = new ArrayList<>();
+        for (int f = 0; f < 4; ++f) {
+            PlannedFeature pf = new PlannedFeature(compiled.getFeature(f), compiled.getEmployee(f % 2));
+            pf.setFrozen(f % 2 == 0);
+            previousPlan.add(pf);
+        }
+        Feature unknown = new Feature("Unknown", PriorityLevel.ONE, 10.0, new ArrayList<>(), new ArrayList<>());
+        previousPlan.add(new PlannedFeature(unknown, compiled.getEmployee(0)));    // Not part of the problem
+
+        PlanningSolution solution = new PlanningSolution(problem, previousPlan);
+        assertGenotype(solution, 0, 1, 2, 3);
+        assertFrozen(solution, true, false, true, false);
+
+        solution.exchange(0, 1);
+        assertGenotype(solution, 1, 0, 2, 3);
+        assertFrozen(solution, false, true, true, false);
+
+        PlanningSolution copy = new PlanningSolution(solution);
+        assertFrozen(copy, false, true, true, false);
+
+        // An unscheduled frozen job is not frozen anymore once it is scheduled again
+        solution.unschedule(solution.getPlannedFeature(1));
+        solution.scheduleAtTheEnd(0, 0);
+        assertGenotype(solution, 1, 2, 3, 0);
+        assertFrozen(solution, false, true, false, false);
+        assertFrozen(copy, false, true, true, false);
+    }
+
+    @Test
+    public void firstJobOfAFeatureInThePreviousPlanIsTheOneKept() {
+        NextReleaseProblem problem = random.all(3, 4, 2, 3, 40.0);
+        CompiledProblem compiled = problem.getCompiledProblem();
+        Feature unknown = new Feature("Unknown", PriorityLevel.ONE, 10.0, new ArrayList<>(), new ArrayList<>());
+
+        PlannedFeature first = new PlannedFeature(compiled.getFeature(0), compiled.getEmployee(1));
+        first.setFrozen(true);
+        PlannedFeature duplicate = new PlannedFeature(compiled.getFeature(0), compiled.getEmployee(0));
+        PlannedFeature notFrozen = new PlannedFeature(compiled.getFeature(1), compiled.getEmployee(0));
+        PlannedFeature frozenDuplicate = new PlannedFeature(compiled.getFeature(1), compiled.getEmployee(1));
+        frozenDuplicate.setFrozen(true);
+        PlannedFeature outside = new PlannedFeature(unknown, compiled.getEmployee(0));
+        outside.setFrozen(true);
+
+        ApiPlanningSolution previousSolution = new ApiPlanningSolution();
+        previousSolution.setJobs(asList(first, duplicate, notFrozen, frozenDuplicate, outside));
+        problem.setPreviousSolution(previousSolution);
+        PreviousPlan plan = problem.getPreviousPlan();
+
+        Assert.assertSame(first, plan.getJob(0));
+        Assert.assertTrue(plan.isFrozen(0));
+        Assert.assertEquals(1, plan.getAssignee(0));
+        Assert.assertTrue(plan.isUnchanged(0, first));
+        Assert.assertFalse(plan.isUnchanged(0, duplicate));
+
+        Assert.assertSame(notFrozen, plan.getJob(1));
+        Assert.assertFalse(plan.isFrozen(1));
+        Assert.assertFalse(plan.isFrozen(compiled.getFeature(1)));
+        Assert.assertEquals(0, plan.getAssignee(1));
+
+        Assert.assertFalse(plan.isPlanned(2));
+        Assert.assertNull(plan.getJob(2));
+        Assert.assertEquals(CompiledProblem.UNKNOWN, plan.getAssignee(2));
+        Assert.assertFalse(plan.isFrozen(unknown));
+
+        // Every frozen job is counted, even the duplicated ones and the ones of unknown features
+        Assert.assertEquals(3, plan.getNbFrozenJobs());
+    }
+
+    @Test
+    public void initializationWithPrecedencesPlansTheDependenciesFirst() {
+        Skill skill = random.skill();
+        List<Feature> features = random.featureList(6);
+        List<Employee> employees = random.employeeList(2);
+        for (Feature feature : features)
+            feature.getRequiredSkills().add(skill);
+        for (Employee employee : employees)
+            employee.getSkills().add(skill);
+
+        features.get(1).getPreviousFeatures().add(features.get(0));
+        features.get(2).getPreviousFeatures().add(features.get(0));
+        features.get(3).getPreviousFeatures().addAll(asList(features.get(1), features.get(2)));
+        features.get(5).getPreviousFeatures().add(features.get(3));
+
+        NextReleaseProblem problem = new NextReleaseProblem(features, employees, 3, 40.0);
+        problem.getAlgorithmParameters().setSeed(3L);
+        problem.getAlgorithmParameters().setRateOfNotRandomSolution(1.0);      // Always with the precedences
+
+        for (int n = 0; n < 20; ++n) {
+            PlanningSolution solution = problem.createSolution();
+            Assert.assertEquals(features.size(), solution.size());
+
+            List<Feature> plannedBefore = new ArrayList<>();
+            for (PlannedFeature pf : solution.getPlannedFeatures()) {
+                Assert.assertTrue(plannedBefore.containsAll(pf.getFeature().getPreviousFeatures()));
+                plannedBefore.add(pf.getFeature());
+            }
+        }
+    }
+
+    // Checks that the solution plans the given features of the compiled problem in this order, and no other
+    private static void assertGenotype(PlanningSolution solution, int... featureIds) {
+        CompiledProblem compiled = solution.getProblem().getCompiledProblem();
+        Assert.assertEquals(featureIds.length, solution.size());
+        Assert.assertEquals(featureIds.length, solution.getPlannedFeatures().size());
+        Assert.assertEquals(compiled.getNbFeatures() - featureIds.length, solution.getNbUndoneFeatures());
+
+        List<Feature> undoneFeatures = solution.getUndoneFeatures();
+        for (int f = 0; f < compiled.getNbFeatures(); ++f) {
+            Feature feature = compiled.getFeature(f);
+            int position = -1;
+            for (int i = 0; i < featureIds.length; ++i)
+                if (featureIds[i] == f)
+                    position = i;
+
+            Assert.assertEquals(position >= 0, solution.isAlreadyPlanned(feature));
+            Assert.assertEquals(position < 0, undoneFeatures.contains(feature));
+            PlannedFeature pf = solution.findPlannedFeature(feature);
+            if (position < 0) {
+                Assert.assertNull(pf);
+            } else {
+                Assert.assertEquals(f, solution.getFeatureId(position));
+                Assert.assertEquals(feature, pf.getFeature());
+                Assert.assertEquals(compiled.getEmployee(solution.getEmployeeId(position)), pf.getEmployee());
+                Assert.assertEquals(feature, solution.getPlannedFeature(position).getFeature());
+            }
+        }
+    }
+
+    private static void assertFrozen(PlanningSolution solution, boolean... frozen) {
+        Assert.assertEquals(frozen.length, solution.size());
+        for (int i = 0; i < frozen.length; ++i)
+            Assert.assertEquals(frozen[i], solution.getPlannedFeature(i).isFrozen());
+    }
+
+    @Test
+    public void fingerprintIsTheOneOfAFreshlyBuiltIdenticalGenotype() {
+        NextReleaseProblem problem = random.all(3, 15, 4, 3, 40.0);
+        problem.getAlgorithmParameters().setSeed(11L);
+        CompiledProblem compiled = problem.getCompiledProblem();
+        PlanningSolution solution = problem.createSolution();
+        assertSameFingerprintAsAFreshSolution(problem, solution);
+
+        for (int n = 0; n < 50; ++n) {
+            switch (n % 5) {
+                case 0: solution.scheduleRandomFeature(); break;
+                case 1: solution.exchange(0, solution.size() - 1); break;
+                case 2: solution.changeEmployee(solution.size() / 2, compiled.getEmployee(n % compiled.getNbEmployees())); break;
+                case 3: solution.scheduleRandomly(solution.getPlannedFeature(0)); break;
+                default: solution.unschedule(solution.getPlannedFeature(solution.size() / 3)); break;
+            }
+            assertSameFingerprintAsAFreshSolution(problem, solution);
+        }
+
+        PlanningSolution exchanged = new PlanningSolution(solution);
+        exchanged.exchange(0, 1);
+        Assert.assertNotEquals(solution.getFingerprint(), exchanged.getFingerprint());
+        Assert.assertNotEquals(solution, exchanged);
+    }
+
+    @Test
+    public void equalSolutionsAreEvaluatedOnce() {
+        NextReleaseProblem problem = random.all(3, 15, 4, 3, 40.0);
+        problem.getAlgorithmParameters().setSeed(13L);
+        PlanningSolution solution = problem.createSolution();
+        PlanningSolution other = problem.createSolution();
+        other.exchange(0, other.size() - 1);
+
+        List<PlanningSolution> evaluated = new ArrayList<>();
+        DuplicateSkippingSolutionListEvaluator evaluator =
+                new DuplicateSkippingSolutionListEvaluator(new CountingEvaluator(problem, evaluated), new EvaluationCache(10));
+
+        List<PlanningSolution> population = asList(solution, new PlanningSolution(solution), other,
+                rebuild(problem, solution), solution);
+        PlanningSolution clone = rebuild(problem, other);     // Built before the evaluation unschedules features
+        evaluator.evaluate(population, problem);
+
+        Assert.assertEquals(2, evaluated.size());
+        Assert.assertSame(solution, evaluated.get(0));
+        Assert.assertSame(other, evaluated.get(1));
+        Assert.assertEquals(2, evaluator.getNbSkipped());
+        for (PlanningSolution evaluatedSolution : population)
+            assertSameEvaluationAsAFreshSolution(problem, evaluatedSolution);
+
+        // The clones of a previous population are found in the cache
+        evaluator.evaluate(asList(clone), problem);
+        Assert.assertEquals(2, evaluated.size());
+        Assert.assertEquals(3, evaluator.getNbSkipped());
+        Assert.assertEquals(1, evaluator.getCache().getHits());
+        assertSameEvaluationAsAFreshSolution(problem, clone);
+    }
+
+    // A solution with the same genotype as the given one, built from scratch
+    private static PlanningSolution rebuild(NextReleaseProblem problem, PlanningSolution solution) {
+        PlanningSolution fresh = new PlanningSolution(problem, false);
+        for (int i = 0; i < solution.size(); ++i)
+            fresh.scheduleAtTheEnd(solution.getFeatureId(i), solution.getEmployeeId(i));
+        return fresh;
+    }
+
+    private static void assertSameFingerprintAsAFreshSolution(NextReleaseProblem problem, PlanningSolution solution) {
+        PlanningSolution fresh = rebuild(problem, solution);
+        Assert.assertEquals(fresh.getFingerprint(), solution.getFingerprint());
+        Assert.assertEquals(fresh.hashCode(), solution.hashCode());
+        Assert.assertEquals(fresh, solution);
+    }
+
+    // Evaluates every solution it is given, adding it to evaluated
+    private static class CountingEvaluator implements SolutionListEvaluator<PlanningSolution> {
+        private static final long serialVersionUID = 4417392306554917823L; // Generated Id
+
+        private final NextReleaseProblem problem;
+        private final List<PlanningSolution> evaluated;
+
+        CountingEvaluator(NextReleaseProblem problem, List<PlanningSolution> evaluated) {
+            this.problem = problem;
+            this.evaluated = evaluated;
+        }
+
+        @Override
+        public List<PlanningSolution> evaluate(List<PlanningSolution> solutionList, Problem<PlanningSolution> p) {
+            for (PlanningSolution solution : solutionList) {
+                SolverNRPTest.evaluate(problem, solution);
+                evaluated.add(solution);
+            }
+            return solutionList;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
 
     // TODO: It won't pass the frozen validation if the solution is cleared because of constraint violation as all planned features are removed, including frozen ones
     //@Test
@@ -440,6 +1033,44 @@ public class SolverNRPTest {
         solutionToDataFile(solution);
     }
 
+    @Test
+    public void datasetEntitiesAreInterned() {
+        ApiNextReleaseProblem p = ApiNextReleaseProblem.fromFile("ATOS - Release 7.txt");
+
+        if (p == null)
+            throw new AssertionError("Dataset file does not exist or contains invalid data.");
+
+        NextReleaseProblem problem = new NextReleaseProblem(p);
+
+        for (Feature feature : p.getFeatures()) {
+            Assert.assertSame(feature, problem.getRegistry().intern(feature));
+            for (Feature dependency : feature.getPreviousFeatures())
+                Assert.assertSame(problem.getRegistry().intern(dependency), dependency);
+            for (Skill skill : feature.getRequiredSkills())
+                Assert.assertSame(problem.getRegistry().intern(skill), skill);
+        }
+        for (Employee employee : p.getResources())
+            for (Skill skill : employee.getSkills())
+                Assert.assertSame(problem.getRegistry().intern(skill), skill);
+    }
+
+    @Test
+    public void entitiesOfUnmodifiableListsAreInterned() {
+        Skill skill = new Skill("Java");
+        Feature dependency = new Feature("A", PriorityLevel.ONE, 10.0, new ArrayList<>(), skill);
+        Feature feature = new Feature("B", PriorityLevel.TWO, 10.0,
+                Collections.singletonList(new Feature("A", PriorityLevel.ONE, 10.0, new ArrayList<>(), skill)),
+                Collections.singletonList(new Skill("Java")));
+        Employee employee = new Employee("Ann", 40.0, Collections.singletonList(new Skill("Java")));
+
+        new NextReleaseProblem(asList(dependency, feature), asList(employee), 3, 40.0);
+
+        Assert.assertSame(dependency, feature.getPreviousFeatures().get(0));
+        Skill canonical = employee.getSkills().get(0);       // The skills of the employees are interned first
+        Assert.assertSame(canonical, feature.getRequiredSkills().get(0));
+        Assert.assertSame(canonical, dependency.getRequiredSkills().get(0));
+    }
+
     @Test
     public void SenerconRelease2() {
         ApiNextReleaseProblem p = ApiNextReleaseProblem.fromFile("SEnerCon - Release 2.txt");
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import com.google.gson.Gson;
+import entities.Feature;
+import entities.PlannedFeature;
+import io.swagger.api.ModelAdapterFactory;
+import io.swagger.api.ReplanGson;
+import io.swagger.model.ApiNextReleaseProblem;
+import io.swagger.model.ApiPlanningSolution;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link ModelAdapterFactory} adapters of {@link ReplanGson#getGson()} with the reflective adapters of
+ * {@link ReplanGson#getReflectiveGson()}, reading the bundled datasets and writing them and a planning of all their
+ * features.
+ *
+ * Run with: gradle jmh -PjmhInclude=GsonAdapterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GsonAdapterBenchmark {
+
+    @Param({"ATOS - Release 7.txt", "SEnerCon - Release 2.txt", "SEnerCon - Release 3.txt"})
+    private String dataset;
+
+    private Gson adapterGson;
+    private Gson reflectiveGson;
+    private String json;
+    private ApiNextReleaseProblem problem;
+    private ApiPlanningSolution solution;
+
+    @Setup
+    public void setUp() throws IOException {
+        adapterGson = ReplanGson.getGson();
+        reflectiveGson = ReplanGson.getReflectiveGson();
+        json = new String(Files.readAllBytes(Paths.get("src/test/datasets", dataset)));
+        problem = reflectiveGson.fromJson(json, ApiNextReleaseProblem.class);
+
+        // Every feature planned, round robin over the resources
+        solution = new ApiPlanningSolution();
+        List<Feature> features = problem.getFeatures();
+        for (int i = 0; i < features.size(); ++i) {
+            PlannedFeature job = new PlannedFeature(features.get(i),
+                    problem.getResources().get(i % problem.getResources().size()));
+            job.setBeginHour(8.0 * i);
+            job.setEndHour(8.0 * i + features.get(i).getDuration());
+            solution.getJobs().add(job);
+        }
+    }
+
+    @Benchmark
+    public ApiNextReleaseProblem readProblemWithAdapters() {
+        return adapterGson.fromJson(json, ApiNextReleaseProblem.class);
+    }
+
+    @Benchmark
+    public ApiNextReleaseProblem readProblemWithReflection() {
+        return reflectiveGson.fromJson(json, ApiNextReleaseProblem.class);
+    }
+
+    @Benchmark
+    public String writeProblemWithAdapters() {
+        return adapterGson.toJson(problem);
+    }
+
+    @Benchmark
+    public String writeProblemWithReflection() {
+        return reflectiveGson.toJson(problem);
+    }
+
+    @Benchmark
+    public String writeSolutionWithAdapters() {
+        return adapterGson.toJson(solution);
+    }
+
+    @Benchmark
+    public String writeSolutionWithReflection() {
+        return reflectiveGson.toJson(solution);
+    }
+}
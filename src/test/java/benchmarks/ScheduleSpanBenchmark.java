@@ -0,0 +1,162 @@
+package benchmarks;
+
+import entities.Employee;
+import entities.Feature;
+import entities.PlannedFeature;
+import entities.PriorityLevel;
+import entities.Schedule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Schedule#scheduleFeature(PlannedFeature)}, which computes the weeks spanned by a feature directly,
+ * with the week by week loop it replaced. Long features done by employees with a low availability are the ones
+ * spanning many weeks.
+ *
+ * Run with: gradle jmh -PjmhInclude=ScheduleSpanBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScheduleSpanBenchmark {
+
+    private static final double HOURS_PER_WEEK = 40.0;
+    private static final int NB_FEATURES = 20;
+
+    @Param({"2", "10", "40"})
+    private double availability;
+
+    @Param({"8", "80", "400"})
+    private double duration;
+
+    private Employee employee;
+    private int nbWeeks;
+    private List<PlannedFeature> plannedFeatures;
+
+    @Setup
+    public void setUp() {
+        employee = new Employee("employee", availability, new ArrayList<>());
+        nbWeeks = (int) Math.ceil(NB_FEATURES * duration / availability);
+
+        plannedFeatures = new ArrayList<>(NB_FEATURES);
+        for (int i = 0; i < NB_FEATURES; ++i) {
+            Feature feature = new Feature("f" + i, PriorityLevel.ONE, duration, new ArrayList<>(), new ArrayList<>());
+            plannedFeatures.add(new PlannedFeature(feature, employee));
+        }
+    }
+
+    @Benchmark
+    public void closedForm(Blackhole blackhole) {
+        Schedule schedule = new Schedule(employee, nbWeeks, HOURS_PER_WEEK);
+        for (PlannedFeature pf : plannedFeatures)
+            blackhole.consume(schedule.scheduleFeature(pf));
+        blackhole.consume(schedule.getTotalHoursLeft());
+    }
+
+    @Benchmark
+    public void weekByWeek(Blackhole blackhole) {
+        WeekByWeekSchedule schedule = new WeekByWeekSchedule(employee, nbWeeks, HOURS_PER_WEEK);
+        for (PlannedFeature pf : plannedFeatures)
+            blackhole.consume(schedule.scheduleFeature(pf));
+        blackhole.consume(schedule.totalHoursLeft);
+    }
+
+
+    /**
+     * The scheduling of {@link Schedule} before the spanned weeks were computed directly: the hours of the feature are
+     * done one week at a time, looking for the current week after each of them.
+     */
+    private static class WeekByWeekSchedule {
+        private final Employee employee;
+        private final double hoursPerWeek;
+
+        private int nbUsedWeeks;
+        private int currentWeek;
+        private double[] beginHours;
+        private double[] endHours;
+        private double[] remainingHours;
+        private List<PlannedFeature> plannedFeatures = new ArrayList<>();
+        private int[] lastWeeks = new int[8];
+        private double totalHoursLeft;
+
+        WeekByWeekSchedule(Employee employee, int nbWeeks, double hoursPerWeek) {
+            this.employee = employee;
+            this.hoursPerWeek = hoursPerWeek;
+            totalHoursLeft = nbWeeks * employee.getWeekAvailability();
+            beginHours = new double[nbWeeks + 1];
+            endHours = new double[nbWeeks + 1];
+            remainingHours = new double[nbWeeks + 1];
+        }
+
+        boolean scheduleFeature(PlannedFeature pf) {
+            double featureHoursLeft = pf.getFeature().getDuration();
+            if (totalHoursLeft < featureHoursLeft)
+                return false;
+
+            int week = getCurrentWeek();
+            double remainingWeekHours = remainingHours[week];
+            PlannedFeature lastPlanned = plannedFeatures.isEmpty() ||
+                    lastWeeks[plannedFeatures.size() - 1] < week - 1 ? null : plannedFeatures.get(plannedFeatures.size() - 1);
+
+            double pfBeginHour = lastPlanned == null ? endHours[week] : lastPlanned.getEndHour();
+            double pfEndHour = pfBeginHour;
+            int lastWeek = week;
+            while (featureHoursLeft > 0.0) {
+                lastWeek = week;
+
+                double doneHours = Math.min(featureHoursLeft, remainingWeekHours);
+
+                featureHoursLeft -= doneHours;
+                totalHoursLeft -= doneHours;
+
+                pfEndHour += featureHoursLeft > 0.0 ? normalizeHours(doneHours) : doneHours;
+
+                remainingHours[week] = remainingWeekHours - doneHours;
+                endHours[week] = pfEndHour;
+
+                week = getCurrentWeek();
+                remainingWeekHours = remainingHours[week];
+            }
+            pf.setBeginHour(pfBeginHour);
+            pf.setEndHour(pfEndHour);
+
+            if (plannedFeatures.size() == lastWeeks.length)
+                lastWeeks = Arrays.copyOf(lastWeeks, 2 * lastWeeks.length);
+            lastWeeks[plannedFeatures.size()] = lastWeek;
+            plannedFeatures.add(pf);
+            return true;
+        }
+
+        private double normalizeHours(double doneHours) {
+            return doneHours * (hoursPerWeek/employee.getWeekAvailability());
+        }
+
+        private int getCurrentWeek() {
+            while (currentWeek < nbUsedWeeks && remainingHours[currentWeek] <= 0.0)
+                ++currentWeek;
+
+            if (currentWeek == nbUsedWeeks) {
+                if (nbUsedWeeks == beginHours.length) {
+                    beginHours = Arrays.copyOf(beginHours, 2 * nbUsedWeeks);
+                    endHours = Arrays.copyOf(endHours, 2 * nbUsedWeeks);
+                    remainingHours = Arrays.copyOf(remainingHours, 2 * nbUsedWeeks);
+                }
+                double beginHour = nbUsedWeeks == 0 ? 0.0 : endHours[nbUsedWeeks - 1];
+                beginHours[nbUsedWeeks] = beginHour;
+                endHours[nbUsedWeeks] = beginHour;
+                remainingHours[nbUsedWeeks] = employee.getWeekAvailability();
+                ++nbUsedWeeks;
+            }
+
+            return currentWeek;
+        }
+    }
+}
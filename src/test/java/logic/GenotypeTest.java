@@ -0,0 +1,93 @@
+package logic;
+
+import entities.Employee;
+import entities.Feature;
+import entities.PriorityLevel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the equality of the {@link Genotype} of the solutions, which are looked up by their fingerprint first
+ */
+public class GenotypeTest {
+
+    /*   -------------
+        | AUX METHODS |
+         -------------
+     */
+    private static PlanningSolution solution() {
+        List<Feature> features = new ArrayList<>();
+        for (int f = 0; f < 4; ++f)
+            features.add(new Feature("F" + f, PriorityLevel.THREE, 10.0, new ArrayList<>(), new ArrayList<>()));
+        List<Employee> employees = Arrays.asList(new Employee("E0", 40.0, new ArrayList<>()),
+                new Employee("E1", 40.0, new ArrayList<>()));
+
+        PlanningSolution solution = new PlanningSolution(new NextReleaseProblem(features, employees, 3, 40.0), false);
+        for (int f = 0; f < features.size(); ++f)
+            solution.scheduleAtTheEnd(f, f % employees.size());
+        return solution;
+    }
+
+    /*   -------
+        | TESTS |
+         -------
+     */
+    @Test
+    public void genotypeOfASolutionIsTheOneOfItsCopies() {
+        PlanningSolution solution = solution();
+        Genotype genotype = solution.getGenotype();
+        Genotype copy = new PlanningSolution(solution).getGenotype();
+
+        Assert.assertEquals(genotype, copy);
+        Assert.assertEquals(genotype.hashCode(), copy.hashCode());
+        Assert.assertEquals(Long.hashCode(solution.getFingerprint()), genotype.hashCode());
+
+        solution.exchange(0, 1);
+        Assert.assertNotEquals(genotype, solution.getGenotype());
+    }
+
+    @Test
+    public void genotypesWithTheSameFingerprintAreComparedByTheirPlanning() {
+        long fingerprint = 42L;
+        Genotype genotype = new Genotype(new int[] {0, 1, 2}, new int[] {0, 1, 0}, fingerprint);
+        Genotype sameGenotype = new Genotype(new int[] {0, 1, 2}, new int[] {0, 1, 0}, fingerprint);
+        Genotype otherOrder = new Genotype(new int[] {1, 0, 2}, new int[] {0, 1, 0}, fingerprint);
+        Genotype otherAssignment = new Genotype(new int[] {0, 1, 2}, new int[] {0, 0, 0}, fingerprint);
+        Genotype otherFingerprint = new Genotype(new int[] {0, 1, 2}, new int[] {0, 1, 0}, fingerprint + 1);
+
+        Assert.assertEquals(genotype, sameGenotype);
+        Assert.assertEquals(genotype.hashCode(), otherOrder.hashCode());
+        Assert.assertEquals(genotype.hashCode(), otherAssignment.hashCode());
+        Assert.assertNotEquals(genotype, otherOrder);
+        Assert.assertNotEquals(genotype, otherAssignment);
+        Assert.assertNotEquals(genotype, otherFingerprint);
+
+        Map<Genotype, String> names = new HashMap<>();
+        names.put(genotype, "genotype");
+        names.put(otherOrder, "other order");
+        Assert.assertEquals(2, names.size());
+        Assert.assertEquals("genotype", names.get(sameGenotype));
+        Assert.assertEquals("other order", names.get(otherOrder));
+        Assert.assertNull(names.get(otherAssignment));
+    }
+
+    @Test
+    public void collidingGenotypeIsNotFoundInTheCache() {
+        PlanningSolution solution = solution();
+        Genotype genotype = solution.getGenotype();
+        Genotype collision = new Genotype(new int[] {1, 0, 2, 3}, new int[] {1, 0, 0, 1}, solution.getFingerprint());
+
+        EvaluationCache cache = new EvaluationCache(10);
+        cache.put(genotype, solution);
+        Assert.assertNull(cache.get(collision));
+        Assert.assertNotNull(cache.get(new PlanningSolution(solution).getGenotype()));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+}